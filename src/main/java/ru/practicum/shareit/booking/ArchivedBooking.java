@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Завершённое бронирование, перенесённое из {@code bookings} в архив. Только для чтения:
+ * строки попадают сюда из {@link BookingArchiver} и больше не меняются.
+ */
+@Entity
+@Table(name = "bookings_archive")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class ArchivedBooking {
+    @Id
+    private Long id;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDateTime start;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDateTime end;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    @ToString.Exclude
+    private Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id", nullable = false)
+    @ToString.Exclude
+    private User booker;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private BookingStatus status;
+
+    @Column(name = "item_owner_id", nullable = false)
+    private Long itemOwnerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", nullable = false, length = 20)
+    private BookingPhase phase;
+}
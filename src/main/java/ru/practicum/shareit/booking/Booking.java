@@ -14,7 +14,6 @@ import java.time.LocalDateTime;
 @Setter
 @ToString
 @NoArgsConstructor
-@AllArgsConstructor
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,4 +38,36 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, length = 20)
     private BookingStatus status;
+
+    // Копия items.owner_id, чтобы выборки владельца не делали join с items
+    @Column(name = "item_owner_id", nullable = false)
+    private Long itemOwnerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", nullable = false, length = 20)
+    private BookingPhase phase;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public Booking(Long id, LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.item = item;
+        this.booker = booker;
+        this.status = status;
+        this.itemOwnerId = item.getOwner().getId();
+    }
+
+    @PrePersist
+    void initDerivedFields() {
+        if (itemOwnerId == null) {
+            itemOwnerId = item.getOwner().getId();
+        }
+        if (phase == null) {
+            phase = BookingPhase.at(start, end, LocalDateTime.now());
+        }
+    }
 }
\ No newline at end of file
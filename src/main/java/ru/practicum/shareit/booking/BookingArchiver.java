@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переносит старые завершённые бронирования из {@code bookings} в {@code bookings_archive}.
+ * <p>
+ * Архивируются бронирования в фазе PAST, закончившиеся раньше {@code retention-days} дней назад
+ * и уже получившие решение (не WAITING). ID идут по возрастанию порциями по {@code batch-size},
+ * каждая порция копируется и удаляется в своей транзакции, так что основная таблица не блокируется надолго.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int batchSize;
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${shareit.booking.archive.retention-days:365}") int retentionDays,
+                           @Value("${shareit.booking.archive.batch-size:1000}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${shareit.booking.archive.cron:0 0 3 * * *}")
+    public void archive() {
+        LocalDateTime endedBefore = LocalDateTime.now().minusDays(retentionDays);
+        long afterId = 0;
+        int archived = 0;
+
+        List<Long> batch = bookingRepository.findArchivableIds(endedBefore, afterId, batchSize);
+        while (!batch.isEmpty()) {
+            List<Long> ids = batch;
+            try {
+                Integer moved = transactionTemplate.execute(status -> bookingRepository.archive(ids));
+                archived += moved == null ? 0 : moved;
+            } catch (RuntimeException e) {
+                log.warn("Не удалось перенести бронирования в архив: {}", e.getMessage());
+                break;
+            }
+            if (batch.size() < batchSize) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1);
+            batch = bookingRepository.findArchivableIds(endedBefore, afterId, batchSize);
+        }
+
+        if (archived > 0) {
+            log.info("Перенесено в архив {} бронирований", archived);
+        }
+    }
+}
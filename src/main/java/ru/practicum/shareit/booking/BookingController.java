@@ -1,17 +1,27 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
+@Validated
 @SuppressWarnings("unused")
 public class BookingController {
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BookingService bookingService;
 
     @PostMapping
@@ -27,6 +37,23 @@ public class BookingController {
         return bookingService.updateBookingStatus(bookingId, approved, userId);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingDecisionResultDto> updateBookingStatuses(
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@Valid BookingDecisionDto> decisions,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.updateBookingStatuses(decisions, userId);
+    }
+
+    @GetMapping("/counts")
+    public BookingCountsDto getUserBookingCounts(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getUserBookingCounts(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public BookingCountsDto getOwnerBookingCounts(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getOwnerBookingCounts(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBooking(@PathVariable Long bookingId,
                                          @RequestHeader("X-Sharer-User-Id") Long userId) {
@@ -42,6 +69,15 @@ public class BookingController {
         return bookingService.getUserBookings(state, userId, from, size);
     }
 
+    @GetMapping(params = "cursor")
+    public BookingPageDto getUserBookingsPage(
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return bookingService.getUserBookingsPage(state, userId, cursor, size);
+    }
+
     @GetMapping("/owner")
     public List<BookingResponseDto> getOwnerBookings(
             @RequestParam(defaultValue = "ALL") BookingState state,
@@ -50,4 +86,13 @@ public class BookingController {
             @RequestParam(defaultValue = "10") int size) {
         return bookingService.getOwnerBookings(state, userId, from, size);
     }
+
+    @GetMapping(path = "/owner", params = "cursor")
+    public BookingPageDto getOwnerBookingsPage(
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return bookingService.getOwnerBookingsPage(state, userId, cursor, size);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking;
+
+public interface BookingCountView {
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    BookingStatus getStatus();
+
+    BookingPhase getPhase();
+
+    Long getCount();
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Счётчики бронирований WAITING/CURRENT/FUTURE для каждого арендатора и владельца.
+ * <p>
+ * Считаются так же, как выборки по состояниям: WAITING — по статусу, CURRENT и FUTURE — по сохранённой фазе.
+ * При старте заполняются одним GROUP BY, затем меняются вместе с бронированиями: при создании,
+ * решении владельца, отмене и смене фазы. Чтение не обращается к базе.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingCounters {
+    private static final int WAITING = 0;
+    private static final int CURRENT = 1;
+    private static final int FUTURE = 2;
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Key, AtomicLongArray> counters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void warmUp() {
+        bookingRepository.countUnfinishedByParticipants().forEach(group -> {
+            long count = group.getCount();
+            if (group.getStatus() == BookingStatus.WAITING) {
+                add(group.getBookerId(), group.getOwnerId(), WAITING, count);
+            }
+            add(group.getBookerId(), group.getOwnerId(), indexOf(group.getPhase()), count);
+        });
+    }
+
+    public BookingCountsDto get(BookingRole role, Long userId) {
+        AtomicLongArray values = counters.get(new Key(role, userId));
+        if (values == null) {
+            return new BookingCountsDto(0, 0, 0);
+        }
+        return new BookingCountsDto(values.get(WAITING), values.get(CURRENT), values.get(FUTURE));
+    }
+
+    public void created(Long bookerId, Long ownerId, BookingPhase phase) {
+        add(bookerId, ownerId, WAITING, 1);
+        add(bookerId, ownerId, indexOf(phase), 1);
+    }
+
+    // Бронирование вышло из WAITING: подтверждено, отклонено или отменено
+    public void decided(Long bookerId, Long ownerId) {
+        add(bookerId, ownerId, WAITING, -1);
+    }
+
+    public void phaseChanged(Long bookerId, Long ownerId, BookingPhase from, BookingPhase to) {
+        add(bookerId, ownerId, indexOf(from), -1);
+        add(bookerId, ownerId, indexOf(to), 1);
+    }
+
+    private void add(Long bookerId, Long ownerId, int index, long delta) {
+        if (index < 0) {
+            return;
+        }
+        valuesFor(BookingRole.BOOKER, bookerId).addAndGet(index, delta);
+        valuesFor(BookingRole.OWNER, ownerId).addAndGet(index, delta);
+    }
+
+    private AtomicLongArray valuesFor(BookingRole role, Long userId) {
+        return counters.computeIfAbsent(new Key(role, userId), key -> new AtomicLongArray(3));
+    }
+
+    private static int indexOf(BookingPhase phase) {
+        return switch (phase) {
+            case CURRENT -> CURRENT;
+            case FUTURE -> FUTURE;
+            case PAST -> -1;
+        };
+    }
+
+    private record Key(BookingRole role, Long userId) {
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking;
+
+public enum BookingDecisionOutcome {
+    APPROVED,
+    REJECTED,
+    NOT_FOUND,
+    FORBIDDEN,
+    ALREADY_DECIDED
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Отменяет бронирования, которые так и не подтвердили до их начала (WAITING → CANCELED).
+ * <p>
+ * Работает в потоке планировщика, а не в потоках запросов. Просроченные ID выбираются порциями
+ * не больше {@code chunk-size}, и каждая порция отменяется условным UPDATE в своей короткой транзакции,
+ * поэтому блокировки строк держатся только на время одной порции.
+ */
+@Slf4j
+@Component
+public class BookingExpiryJob {
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final BookingCounters counters;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public BookingExpiryJob(BookingRepository bookingRepository,
+                            BookingIntervalIndex intervalIndex,
+                            BookingCounters counters,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${shareit.booking.expiry.chunk-size:500}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.intervalIndex = intervalIndex;
+        this.counters = counters;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.expiry.delay-ms:300000}")
+    public void expire() {
+        LocalDateTime now = LocalDateTime.now();
+        int processed = 0;
+        int canceled = 0;
+
+        List<Long> chunk = bookingRepository.findOverdueWaitingIds(now, PageRequest.of(0, chunkSize));
+        while (!chunk.isEmpty()) {
+            try {
+                canceled += cancel(chunk, now);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось отменить просроченные бронирования: {}", e.getMessage());
+                break;
+            }
+            processed += chunk.size();
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            chunk = bookingRepository.findOverdueWaitingIds(now, PageRequest.of(0, chunkSize));
+        }
+
+        if (processed > 0) {
+            log.info("Просмотрено {} просроченных бронирований, отменено {}", processed, canceled);
+        }
+    }
+
+    private int cancel(List<Long> chunk, LocalDateTime now) {
+        List<BookingOwnershipView> canceled = transactionTemplate.execute(status -> {
+            bookingRepository.cancelOverdue(chunk, now);
+            // Часть бронирований могли успеть подтвердить или отклонить: дальше учитываем только отменённые
+            return bookingRepository.findOwnershipByIds(chunk).stream()
+                    .filter(booking -> booking.getStatus() == BookingStatus.CANCELED)
+                    .collect(Collectors.toList());
+        });
+        if (canceled == null) {
+            return 0;
+        }
+        canceled.forEach(booking -> {
+            intervalIndex.remove(booking.getId());
+            counters.decided(booking.getBookerId(), booking.getOwnerId());
+        });
+        return canceled.size();
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Индекс занятых интервалов по вещам: хранит WAITING/APPROVED бронирования, которые ещё не закончились,
+ * и позволяет проверить пересечение нового интервала [start, end) без обращения к базе.
+ * <p>
+ * Интервалы одной вещи не пересекаются (это гарантирует {@link BookingServiceImpl#createBooking}),
+ * поэтому они упорядочены одновременно и по началу, и по концу, и для проверки достаточно
+ * одного поиска ближайшего интервала слева от конца нового — O(log n).
+ * <p>
+ * Бронирования, созданные до индекса, на пересечения не проверялись. Вещь, у которой при загрузке нашлись
+ * пересекающиеся интервалы, помечается, и для неё проверяются все интервалы, начавшиеся раньше конца нового:
+ * длинный интервал может прятаться за более поздним коротким.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, NavigableSet<Slot>> slotsByItem = new ConcurrentHashMap<>();
+    private final Map<Long, Slot> slotsByBooking = new ConcurrentHashMap<>();
+    private final Set<Long> itemsWithOverlaps = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void warmUp() {
+        bookingRepository.findActiveSlots(ACTIVE_STATUSES, LocalDateTime.now())
+                .forEach(slot -> add(slot.getItemId(), slot.getId(), slot.getStart(), slot.getEnd()));
+    }
+
+    public boolean hasConflict(Long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableSet<Slot> slots = slotsByItem.get(itemId);
+        if (slots == null) {
+            return false;
+        }
+        Slot probe = new Slot(itemId, Long.MIN_VALUE, end, end);
+        if (itemsWithOverlaps.contains(itemId)) {
+            return slots.headSet(probe, false).stream().anyMatch(slot -> slot.end().isAfter(start));
+        }
+        Slot before = slots.lower(probe);
+        return before != null && before.end().isAfter(start);
+    }
+
+    /**
+     * Свободные промежутки вещи внутри [from, to), в порядке возрастания.
+     */
+    public List<Period> freePeriods(Long itemId, LocalDateTime from, LocalDateTime to) {
+        List<Period> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+
+        NavigableSet<Slot> slots = slotsByItem.get(itemId);
+        if (slots != null) {
+            Slot first = slots.lower(new Slot(itemId, Long.MIN_VALUE, from, from));
+            NavigableSet<Slot> candidates = first == null || itemsWithOverlaps.contains(itemId)
+                    ? slots
+                    : slots.tailSet(first, true);
+            for (Slot slot : candidates) {
+                if (!slot.start().isBefore(to)) {
+                    break;
+                }
+                if (slot.start().isAfter(cursor)) {
+                    free.add(new Period(cursor, slot.start()));
+                }
+                if (slot.end().isAfter(cursor)) {
+                    cursor = slot.end();
+                }
+            }
+        }
+
+        if (cursor.isBefore(to)) {
+            free.add(new Period(cursor, to));
+        }
+        return free;
+    }
+
+    public void add(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        Slot slot = new Slot(itemId, bookingId, start, end);
+        Slot previous = slotsByBooking.put(bookingId, slot);
+        if (previous != null) {
+            slotsFor(previous.itemId()).remove(previous);
+        }
+        if (hasConflict(itemId, start, end)) {
+            itemsWithOverlaps.add(itemId);
+        }
+        slotsFor(itemId).add(slot);
+    }
+
+    public void remove(Long bookingId) {
+        Slot slot = slotsByBooking.remove(bookingId);
+        if (slot != null) {
+            slotsFor(slot.itemId()).remove(slot);
+        }
+    }
+
+    private NavigableSet<Slot> slotsFor(Long itemId) {
+        return slotsByItem.computeIfAbsent(itemId, id -> new ConcurrentSkipListSet<>(Slot.ORDER));
+    }
+
+    public record Period(LocalDateTime start, LocalDateTime end) {
+    }
+
+    private record Slot(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        private static final Comparator<Slot> ORDER = Comparator.comparing(Slot::start)
+                .thenComparing(Slot::bookingId);
+    }
+}
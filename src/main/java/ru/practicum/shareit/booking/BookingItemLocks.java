@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Полосатые блокировки по ID вещи для создания бронирований.
+ * <p>
+ * Проверка пересечения и вставка для одной вещи должны идти последовательно, для разных — параллельно.
+ * Фиксированный массив из степени двойки блокировок делит вещи по хешу ID: вещи из одной полосы
+ * иногда ждут друг друга, но память не растёт с числом вещей. Блокировки локальны для экземпляра приложения.
+ */
+@Component
+public class BookingItemLocks {
+    private final Lock[] locks;
+    private final int mask;
+
+    public BookingItemLocks(@Value("${shareit.booking.lock-stripes:64}") int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public Lock lockFor(Long itemId) {
+        int hash = itemId.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & mask];
+    }
+}
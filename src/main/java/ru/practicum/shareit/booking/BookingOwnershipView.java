@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+public interface BookingOwnershipView {
+    Long getId();
+
+    Long getItemId();
+
+    Long getOwnerId();
+
+    Long getBookerId();
+
+    LocalDateTime getStart();
+
+    BookingStatus getStatus();
+
+    BookingPhase getPhase();
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Положение бронирования относительно текущего момента. Хранится в таблице и продвигается
+ * {@link BookingPhaseSweeper}, чтобы запросы CURRENT/PAST/FUTURE сводились к сравнению на равенство.
+ */
+public enum BookingPhase {
+    FUTURE,
+    CURRENT,
+    PAST;
+
+    public static BookingPhase at(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (!end.isAfter(now)) {
+            return PAST;
+        }
+        return start.isAfter(now) ? FUTURE : CURRENT;
+    }
+}
@@ -0,0 +1,148 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Продвигает сохранённую фазу бронирований (FUTURE → CURRENT → PAST).
+ * <p>
+ * Моменты смены фаз лежат в очереди, упорядоченной по времени: при старте она заполняется
+ * незавершёнными бронированиями, затем пополняется при создании новых. Каждый проход забирает
+ * наступившие переходы пачками не больше {@code batch-size} и применяет каждую пачку
+ * условным UPDATE в отдельной транзакции. Фаза отстаёт от реального времени не больше чем на период прохода.
+ */
+@Slf4j
+@Component
+public class BookingPhaseSweeper {
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final BookingCounters counters;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final NavigableSet<Transition> queue = new ConcurrentSkipListSet<>(Transition.ORDER);
+
+    public BookingPhaseSweeper(BookingRepository bookingRepository,
+                               BookingIntervalIndex intervalIndex,
+                               BookingCounters counters,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${shareit.booking.phase-sweep.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.intervalIndex = intervalIndex;
+        this.counters = counters;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        bookingRepository.findUnfinishedPhases()
+                .forEach(booking -> schedule(booking.getId(), booking.getStart(), booking.getEnd(), booking.getPhase()));
+    }
+
+    public void schedule(Long bookingId, LocalDateTime start, LocalDateTime end, BookingPhase phase) {
+        if (phase == BookingPhase.FUTURE) {
+            queue.add(new Transition(start, bookingId, BookingPhase.CURRENT));
+        }
+        if (phase != BookingPhase.PAST) {
+            queue.add(new Transition(end, bookingId, BookingPhase.PAST));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.phase-sweep.delay-ms:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int advanced = 0;
+
+        List<Transition> batch = pollDue(now);
+        while (!batch.isEmpty()) {
+            try {
+                advanced += apply(batch);
+            } catch (RuntimeException e) {
+                // Вернём пачку в очередь и попробуем на следующем проходе
+                queue.addAll(batch);
+                log.warn("Не удалось обновить фазы бронирований: {}", e.getMessage());
+                break;
+            }
+            batch = pollDue(now);
+        }
+
+        if (advanced > 0) {
+            log.debug("Обновлены фазы {} бронирований", advanced);
+        }
+    }
+
+    private List<Transition> pollDue(LocalDateTime now) {
+        List<Transition> batch = new ArrayList<>();
+        while (batch.size() < batchSize) {
+            Transition next = queue.pollFirst();
+            if (next == null) {
+                break;
+            }
+            if (next.at().isAfter(now)) {
+                queue.add(next);
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private int apply(List<Transition> batch) {
+        List<Long> toCurrent = new ArrayList<>();
+        List<Long> toPast = new ArrayList<>();
+        Map<Long, BookingPhase> targets = new HashMap<>();
+        for (Transition transition : batch) {
+            (transition.phase() == BookingPhase.CURRENT ? toCurrent : toPast).add(transition.bookingId());
+            targets.merge(transition.bookingId(), transition.phase(),
+                    (first, second) -> first.compareTo(second) >= 0 ? first : second);
+        }
+
+        // Фазы до обновления читаются в той же транзакции, чтобы поправить счётчики только по реально сдвинутым
+        List<BookingOwnershipView> before = transactionTemplate.execute(status -> {
+            List<BookingOwnershipView> bookings = bookingRepository.findOwnershipByIds(targets.keySet());
+            if (!toCurrent.isEmpty()) {
+                bookingRepository.advancePhase(toCurrent, List.of(BookingPhase.FUTURE), BookingPhase.CURRENT);
+            }
+            if (!toPast.isEmpty()) {
+                bookingRepository.advancePhase(
+                        toPast, List.of(BookingPhase.FUTURE, BookingPhase.CURRENT), BookingPhase.PAST);
+            }
+            return bookings;
+        });
+
+        int advanced = 0;
+        if (before != null) {
+            for (BookingOwnershipView booking : before) {
+                BookingPhase target = targets.get(booking.getId());
+                if (booking.getPhase().compareTo(target) < 0) {
+                    counters.phaseChanged(booking.getBookerId(), booking.getOwnerId(), booking.getPhase(), target);
+                    advanced++;
+                }
+            }
+        }
+
+        // Закончившиеся бронирования больше не могут пересечься с новыми
+        toPast.forEach(intervalIndex::remove);
+        return advanced;
+    }
+
+    private record Transition(LocalDateTime at, Long bookingId, BookingPhase phase) {
+        private static final Comparator<Transition> ORDER = Comparator.comparing(Transition::at)
+                .thenComparing(Transition::bookingId)
+                .thenComparing(Transition::phase);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.pagination.SeekCursor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запросы к бронированиям, которые не выражаются производными методами Spring Data.
+ */
+public interface BookingQueryRepository {
+
+    /**
+     * Выборка по роли пользователя и состоянию одним SQL-запросом с проекцией сразу
+     * в {@link BookingResponseDto}. Порядок — (start, id) по убыванию.
+     * Состояния CURRENT/PAST/FUTURE определяются по сохранённой фазе бронирования.
+     * Для ALL/PAST/REJECTED сначала читается страница основной таблицы: архивные бронирования закончились
+     * раньше отсечки {@code retention-days}, поэтому полная страница, последняя строка которой начинается не раньше
+     * отсечки, возвращается без обращения к архиву. Иначе старые строки основной таблицы сливаются с архивом.
+     */
+    List<BookingResponseDto> findBookings(BookingRole role, Long userId, BookingState state, int offset, int limit);
+
+    /**
+     * Страница, начинающаяся строго после курсора. Без курсора возвращается первая страница.
+     * Курсор ограничивает основную таблицу и архив одинаково; архив читается по тому же правилу отсечки,
+     * что и в {@link #findBookings}.
+     */
+    List<BookingResponseDto> findBookingsAfter(BookingRole role, Long userId, BookingState state,
+                                               SeekCursor after, int limit);
+
+    /**
+     * Есть ли у пользователя завершённое подтверждённое бронирование вещи. Архив проверяется,
+     * только если в основной таблице такого бронирования нет.
+     */
+    boolean hasCompletedBooking(Long userId, Long itemId, LocalDateTime now);
+
+    /**
+     * ID завершённых и уже решённых бронирований, закончившихся раньше {@code endedBefore},
+     * по возрастанию начиная после {@code afterId}.
+     */
+    List<Long> findArchivableIds(LocalDateTime endedBefore, long afterId, int limit);
+
+    /**
+     * Переносит бронирования в {@code bookings_archive} и удаляет их из основной таблицы.
+     *
+     * @return число перенесённых строк
+     */
+    int archive(Collection<Long> bookingIds);
+
+    /**
+     * Условная смена статуса пачкой: для каждого бронирования выполняется
+     * {@code UPDATE ... WHERE id = ? AND status = :expected}, все команды уходят одним JDBC-батчем.
+     * Контекст персистентности сбрасывается перед батчем и очищается после него.
+     *
+     * @return результат JDBC-батча по каждому id в порядке итерации {@code statuses}: число изменённых строк
+     * или {@link java.sql.Statement#SUCCESS_NO_INFO}/{@link java.sql.Statement#EXECUTE_FAILED}
+     */
+    int[] compareAndSetStatuses(Map<Long, BookingStatus> statuses, BookingStatus expected);
+}
@@ -0,0 +1,290 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.pagination.SeekCursor;
+import ru.practicum.shareit.user.User;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@SuppressWarnings("unused")
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+    private static final String COMPARE_AND_SET_STATUS_SQL =
+            "UPDATE bookings SET status = ?, version = version + 1 WHERE id = ? AND status = ?";
+    private static final String ARCHIVE_SQL =
+            "INSERT INTO bookings_archive (id, start_date, end_date, item_id, booker_id, item_owner_id, status, phase) " +
+            "SELECT id, start_date, end_date, item_id, booker_id, item_owner_id, status, phase " +
+            "FROM bookings WHERE id IN (:bookingIds)";
+    private static final String DELETE_ARCHIVED_SQL = "DELETE FROM bookings WHERE id IN (:bookingIds)";
+
+    // Состояния, в которые попадают архивные бронирования: архивируются только завершённые и уже решённые
+    private static final Set<BookingState> ARCHIVED_STATES =
+            EnumSet.of(BookingState.ALL, BookingState.PAST, BookingState.REJECTED);
+
+    private static final Comparator<BookingResponseDto> NEWEST_FIRST = Comparator
+            .comparing(BookingResponseDto::getStart)
+            .thenComparing(BookingResponseDto::getId)
+            .reversed();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Тот же срок хранения, что у BookingArchiver
+    @Value("${shareit.booking.archive.retention-days:365}")
+    private int retentionDays;
+
+    @Override
+    public List<BookingResponseDto> findBookings(BookingRole role, Long userId, BookingState state,
+                                                 int offset, int limit) {
+        List<BookingResponseDto> bookings = entityManager
+                .createQuery(buildQuery(Booking.class, role, userId, state, null, null))
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+        if (!ARCHIVED_STATES.contains(state)) {
+            return bookings;
+        }
+        LocalDateTime cutoff = archiveCutoff();
+        if (precedesArchive(bookings, limit, cutoff)) {
+            return bookings;
+        }
+
+        // Строки, начавшиеся не раньше отсечки, стоят в общем порядке перед всем архивом. Если страница начинается
+        // с них, остаток страницы — начало слияния старых строк основной таблицы с архивом, и старые строки
+        // уже прочитаны вместе со страницей
+        int recent = recentPrefix(bookings, cutoff);
+        if (recent > 0 || offset == 0) {
+            List<BookingResponseDto> page = new ArrayList<>(bookings.subList(0, recent));
+            List<BookingResponseDto> archived = entityManager
+                    .createQuery(buildQuery(ArchivedBooking.class, role, userId, state, null, null))
+                    .setMaxResults(limit - recent)
+                    .getResultList();
+            page.addAll(merge(bookings.subList(recent, bookings.size()), archived, 0, limit - recent));
+            return page;
+        }
+
+        // Страница целиком среди старых строк: смещение внутри слияния отсчитывается от последней свежей строки,
+        // и из каждой таблицы читается не больше skip + limit строк старше отсечки
+        int skip = offset - (int) countRecent(role, userId, state, cutoff);
+        List<BookingResponseDto> older = entityManager
+                .createQuery(buildQuery(Booking.class, role, userId, state, null, cutoff))
+                .setMaxResults(skip + limit)
+                .getResultList();
+        List<BookingResponseDto> archived = entityManager
+                .createQuery(buildQuery(ArchivedBooking.class, role, userId, state, null, null))
+                .setMaxResults(skip + limit)
+                .getResultList();
+        return merge(older, archived, skip, limit);
+    }
+
+    @Override
+    public List<BookingResponseDto> findBookingsAfter(BookingRole role, Long userId, BookingState state,
+                                                      SeekCursor after, int limit) {
+        List<BookingResponseDto> bookings = entityManager
+                .createQuery(buildQuery(Booking.class, role, userId, state, after, null))
+                .setMaxResults(limit)
+                .getResultList();
+        if (!ARCHIVED_STATES.contains(state)) {
+            return bookings;
+        }
+        LocalDateTime cutoff = archiveCutoff();
+        if (precedesArchive(bookings, limit, cutoff)) {
+            return bookings;
+        }
+
+        // Курсор одинаково ограничивает обе таблицы, а страница собирается слиянием по (start, id).
+        // Свежие строки страницы идут перед архивом, поэтому из архива нужно только на остаток
+        int recent = recentPrefix(bookings, cutoff);
+        List<BookingResponseDto> archived = entityManager
+                .createQuery(buildQuery(ArchivedBooking.class, role, userId, state, after, null))
+                .setMaxResults(limit - recent)
+                .getResultList();
+        return merge(bookings, archived, 0, limit);
+    }
+
+    @Override
+    public boolean hasCompletedBooking(Long userId, Long itemId, LocalDateTime now) {
+        return hasCompletedBooking(Booking.class, userId, itemId, now)
+                || hasCompletedBooking(ArchivedBooking.class, userId, itemId, now);
+    }
+
+    @Override
+    public List<Long> findArchivableIds(LocalDateTime endedBefore, long afterId, int limit) {
+        return entityManager.createQuery("SELECT b.id FROM Booking b " +
+                        "WHERE b.phase = :phase AND b.end < :endedBefore AND b.status <> :waiting AND b.id > :afterId " +
+                        "ORDER BY b.id", Long.class)
+                .setParameter("phase", BookingPhase.PAST)
+                .setParameter("endedBefore", endedBefore)
+                .setParameter("waiting", BookingStatus.WAITING)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int archive(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        entityManager.createNativeQuery(ARCHIVE_SQL)
+                .setParameter("bookingIds", bookingIds)
+                .executeUpdate();
+        return entityManager.createNativeQuery(DELETE_ARCHIVED_SQL)
+                .setParameter("bookingIds", bookingIds)
+                .executeUpdate();
+    }
+
+    @Override
+    public int[] compareAndSetStatuses(Map<Long, BookingStatus> statuses, BookingStatus expected) {
+        if (statuses.isEmpty()) {
+            return new int[0];
+        }
+        // Батч идёт мимо Hibernate: отложенные изменения сбрасываются до него, а после контекст очищается,
+        // чтобы загруженные ранее бронирования не читались в этой транзакции со старым статусом
+        entityManager.flush();
+        int[] updated = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(COMPARE_AND_SET_STATUS_SQL)) {
+                for (Map.Entry<Long, BookingStatus> entry : statuses.entrySet()) {
+                    statement.setString(1, entry.getValue().name());
+                    statement.setLong(2, entry.getKey());
+                    statement.setString(3, expected.name());
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+        entityManager.clear();
+        return updated;
+    }
+
+    // Архивируются бронирования, закончившиеся раньше now - retentionDays на момент переноса. Отсечка запроса
+    // не раньше этой, так что любое архивное бронирование и начинается раньше неё
+    private LocalDateTime archiveCutoff() {
+        return LocalDateTime.now().minusDays(retentionDays);
+    }
+
+    // Полная страница, последняя строка которой начинается не раньше отсечки, целиком предшествует архиву
+    private static boolean precedesArchive(List<BookingResponseDto> page, int limit, LocalDateTime cutoff) {
+        return page.size() == limit && (page.isEmpty() || !page.get(page.size() - 1).getStart().isBefore(cutoff));
+    }
+
+    // Число строк в начале страницы, начавшихся не раньше отсечки
+    private static int recentPrefix(List<BookingResponseDto> page, LocalDateTime cutoff) {
+        int recent = 0;
+        while (recent < page.size() && !page.get(recent).getStart().isBefore(cutoff)) {
+            recent++;
+        }
+        return recent;
+    }
+
+    private long countRecent(BookingRole role, Long userId, BookingState state, LocalDateTime cutoff) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Booking> booking = query.from(Booking.class);
+        List<Predicate> predicates = predicates(cb, booking, role, userId, state);
+        predicates.add(cb.greaterThanOrEqualTo(booking.get("start"), cutoff));
+        return entityManager.createQuery(query.select(cb.count(booking)).where(predicates.toArray(new Predicate[0])))
+                .getSingleResult();
+    }
+
+    // Слияние двух списков, упорядоченных по (start, id) по убыванию, с пропуском первых skip строк
+    private static List<BookingResponseDto> merge(List<BookingResponseDto> first, List<BookingResponseDto> second,
+                                                  int skip, int limit) {
+        List<BookingResponseDto> result = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        int position = 0;
+        while (result.size() < limit && (i < first.size() || j < second.size())) {
+            BookingResponseDto next;
+            if (j == second.size() || i < first.size() && NEWEST_FIRST.compare(first.get(i), second.get(j)) <= 0) {
+                next = first.get(i++);
+            } else {
+                next = second.get(j++);
+            }
+            if (position++ >= skip) {
+                result.add(next);
+            }
+        }
+        return result;
+    }
+
+    private boolean hasCompletedBooking(Class<?> entity, Long userId, Long itemId, LocalDateTime now) {
+        return !entityManager.createQuery("SELECT b.id FROM " + entity.getSimpleName() + " b " +
+                        "WHERE b.booker.id = :userId AND b.item.id = :itemId AND b.status = :status AND b.end < :now",
+                        Long.class)
+                .setParameter("userId", userId)
+                .setParameter("itemId", itemId)
+                .setParameter("status", BookingStatus.APPROVED)
+                .setParameter("now", now)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    // Booking и ArchivedBooking имеют одинаковые атрибуты, поэтому запрос строится одинаково для обеих таблиц.
+    // startBefore, если задан, оставляет только бронирования, начавшиеся раньше этого момента
+    private CriteriaQuery<BookingResponseDto> buildQuery(Class<?> entity, BookingRole role, Long userId,
+                                                         BookingState state, SeekCursor after,
+                                                         LocalDateTime startBefore) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingResponseDto> query = cb.createQuery(BookingResponseDto.class);
+        Root<?> booking = query.from(entity);
+        Join<?, User> booker = booking.join("booker");
+        Join<?, Item> item = booking.join("item");
+
+        Path<LocalDateTime> start = booking.get("start");
+        Path<Long> id = booking.get("id");
+
+        List<Predicate> predicates = predicates(cb, booking, role, userId, state);
+
+        // (start, id) < (:start, :id)
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(start, after.timestamp()),
+                    cb.and(cb.equal(start, after.timestamp()), cb.lessThan(id, after.id()))));
+        }
+        if (startBefore != null) {
+            predicates.add(cb.lessThan(start, startBefore));
+        }
+
+        return query.select(cb.construct(BookingResponseDto.class,
+                        id, start, booking.get("end"), booking.get("status"),
+                        booker.get("id"), booker.get("name"),
+                        item.get("id"), item.get("name")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+    }
+
+    private List<Predicate> predicates(CriteriaBuilder cb, Root<?> booking, BookingRole role, Long userId,
+                                       BookingState state) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(switch (role) {
+            case BOOKER -> cb.equal(booking.get("booker").get("id"), userId);
+            case OWNER -> cb.equal(booking.get("itemOwnerId"), userId);
+        });
+
+        switch (state) {
+            case CURRENT -> predicates.add(cb.equal(booking.get("phase"), BookingPhase.CURRENT));
+            case PAST -> predicates.add(cb.equal(booking.get("phase"), BookingPhase.PAST));
+            case FUTURE -> predicates.add(cb.equal(booking.get("phase"), BookingPhase.FUTURE));
+            case WAITING -> predicates.add(cb.equal(booking.get("status"), BookingStatus.WAITING));
+            case REJECTED -> predicates.add(cb.equal(booking.get("status"), BookingStatus.REJECTED));
+            case ALL -> {
+            }
+        }
+        return predicates;
+    }
+}
@@ -2,53 +2,80 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    // Для получения бронирований пользователя
-    List<Booking> findByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
-
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-            Long bookerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status, Pageable pageable);
-
-    // Для получения бронирований владельца
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long ownerId, Pageable pageable);
-
-    List<Booking> findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-            Long ownerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findByItemOwnerIdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findByItemOwnerIdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findByItemOwnerIdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status, Pageable pageable);
-
-    // Для получения ближайших бронирований
-    Optional<Booking> findFirstByItemIdAndStartLessThanEqualAndStatusOrderByStartDesc(
-            Long itemId, LocalDateTime date, BookingStatus status);
-
-    Optional<Booking> findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
-            Long itemId, LocalDateTime date, BookingStatus status);
-
-    // Для проверки завершенных бронирований (для комментариев)
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.booker.id = :userId AND b.item.id = :itemId AND b.status = :status AND b.end < :now")
-    List<Booking> findCompletedBookingsByUserAndItem(@Param("userId") Long userId,
-                                                     @Param("itemId") Long itemId,
-                                                     @Param("status") BookingStatus status,
-                                                     @Param("now") LocalDateTime now);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingResponseDto(" +
+            "b.id, b.start, b.end, b.status, bk.id, bk.name, i.id, i.name) " +
+            "FROM Booking b JOIN b.booker bk JOIN b.item i WHERE b.id = :bookingId")
+    Optional<BookingResponseDto> findResponseById(@Param("bookingId") Long bookingId);
+
+    // Смена статуса одним условным UPDATE: 0 строк означает, что бронирование не найдено,
+    // принадлежит другому владельцу или его статус уже не равен ожидаемому
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id = :bookingId AND b.status = :expected AND b.itemOwnerId = :ownerId")
+    int compareAndSetStatus(@Param("bookingId") Long bookingId,
+                            @Param("ownerId") Long ownerId,
+                            @Param("expected") BookingStatus expected,
+                            @Param("status") BookingStatus status);
+
+    // Проверка владельца и статуса сразу для пачки бронирований
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.itemOwnerId AS ownerId, b.booker.id AS bookerId, " +
+            "b.start AS start, b.status AS status, b.phase AS phase FROM Booking b WHERE b.id IN :bookingIds")
+    List<BookingOwnershipView> findOwnershipByIds(@Param("bookingIds") Collection<Long> bookingIds);
+
+    // Для прогрева счётчиков: число бронирований, которые ещё ждут ответа или не стали прошлыми
+    @Query("SELECT b.booker.id AS bookerId, b.itemOwnerId AS ownerId, b.status AS status, b.phase AS phase, " +
+            "COUNT(b) AS count FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.BookingStatus.WAITING " +
+            "OR b.phase <> ru.practicum.shareit.booking.BookingPhase.PAST " +
+            "GROUP BY b.booker.id, b.itemOwnerId, b.status, b.phase")
+    List<BookingCountView> countUnfinishedByParticipants();
+
+    // Для сводки по вещам: все будущие подтверждённые бронирования и последнее начавшееся для каждой вещи
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.booker.id AS bookerId, b.start AS start FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED AND (b.start > :now OR b.start = " +
+            "(SELECT MAX(b2.start) FROM Booking b2 WHERE b2.item.id = b.item.id " +
+            "AND b2.status = ru.practicum.shareit.booking.BookingStatus.APPROVED AND b2.start <= :now))")
+    List<ApprovedBookingView> findApprovedForSummary(@Param("now") LocalDateTime now);
+
+    // Для прогрева индекса занятых интервалов
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.status IN :statuses AND b.end > :now")
+    List<BookingSlotView> findActiveSlots(@Param("statuses") List<BookingStatus> statuses,
+                                          @Param("now") LocalDateTime now);
+
+    // Для очереди смены фаз: все бронирования, которые ещё не стали прошлыми
+    @Query("SELECT b.id AS id, b.start AS start, b.end AS end, b.phase AS phase FROM Booking b " +
+            "WHERE b.phase <> ru.practicum.shareit.booking.BookingPhase.PAST")
+    List<BookingPhaseView> findUnfinishedPhases();
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.phase = :phase WHERE b.id IN :bookingIds AND b.phase IN :fromPhases")
+    int advancePhase(@Param("bookingIds") Collection<Long> bookingIds,
+                     @Param("fromPhases") Collection<BookingPhase> fromPhases,
+                     @Param("phase") BookingPhase phase);
+
+    // Для истечения неподтверждённых бронирований: ID ждущих ответа, чьё начало уже прошло
+    @Query("SELECT b.id FROM Booking b WHERE b.status = ru.practicum.shareit.booking.BookingStatus.WAITING " +
+            "AND b.start < :now ORDER BY b.id")
+    List<Long> findOverdueWaitingIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.BookingStatus.CANCELED, " +
+            "b.version = b.version + 1 WHERE b.id IN :bookingIds " +
+            "AND b.status = ru.practicum.shareit.booking.BookingStatus.WAITING AND b.start < :now")
+    int cancelOverdue(@Param("bookingIds") Collection<Long> bookingIds, @Param("now") LocalDateTime now);
 
     // Проверка существования бронирований для вещи
     @SuppressWarnings("unused")
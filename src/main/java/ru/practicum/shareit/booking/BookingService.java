@@ -1,8 +1,14 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
@@ -10,9 +16,21 @@ public interface BookingService {
 
     BookingResponseDto updateBookingStatus(Long bookingId, Boolean approved, Long userId);
 
+    List<BookingDecisionResultDto> updateBookingStatuses(List<BookingDecisionDto> decisions, Long userId);
+
     BookingResponseDto getBookingById(Long bookingId, Long userId);
 
     List<BookingResponseDto> getUserBookings(BookingState state, Long userId, int from, int size);
 
     List<BookingResponseDto> getOwnerBookings(BookingState state, Long userId, int from, int size);
+
+    BookingPageDto getUserBookingsPage(BookingState state, Long userId, String cursor, int size);
+
+    BookingPageDto getOwnerBookingsPage(BookingState state, Long userId, String cursor, int size);
+
+    BookingCountsDto getUserBookingCounts(Long userId);
+
+    BookingCountsDto getOwnerBookingCounts(Long userId);
+
+    ItemAvailabilityDto getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
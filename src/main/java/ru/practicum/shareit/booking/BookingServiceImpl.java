@@ -1,23 +1,37 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.pagination.SeekCursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,6 +40,11 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final BookingPhaseSweeper phaseSweeper;
+    private final ItemBookingSummary bookingSummary;
+    private final BookingItemLocks itemLocks;
+    private final BookingCounters counters;
 
     @Override
     @Transactional
@@ -56,29 +75,176 @@ public class BookingServiceImpl implements BookingService {
         }
 
         Booking booking = BookingMapper.toModel(bookingDto, item, booker);
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking;
+
+        // Проверка пересечения и вставка для одной вещи идут под блокировкой. Интервал попадает в индекс
+        // сразу после INSERT, так что следующий поток увидит его ещё до коммита, и блокировку можно отпустить
+        Lock lock = itemLocks.lockFor(item.getId());
+        lock.lock();
+        try {
+            if (intervalIndex.hasConflict(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+                throw new ValidationException("Вещь уже забронирована на указанный период");
+            }
+            savedBooking = bookingRepository.save(booking);
+            intervalIndex.add(item.getId(), savedBooking.getId(), savedBooking.getStart(), savedBooking.getEnd());
+        } finally {
+            lock.unlock();
+        }
+        releaseSlotOnRollback(savedBooking.getId());
+        BookingPhase phase = savedBooking.getPhase();
+        afterCommit(() -> counters.created(userId, item.getOwner().getId(), phase));
+
+        phaseSweeper.schedule(savedBooking.getId(), savedBooking.getStart(), savedBooking.getEnd(),
+                savedBooking.getPhase());
         return BookingMapper.toDto(savedBooking);
     }
 
+    // Драйвер может не сообщить число строк (SUCCESS_NO_INFO). Тогда статусы этих бронирований перечитываются:
+    // контекст после батча очищен, и чтение в той же транзакции видит результат обновления
+    private Map<Long, BookingStatus> rereadUnknownStatuses(Collection<Long> bookingIds, int[] updated) {
+        List<Long> unknown = new ArrayList<>();
+        int i = 0;
+        for (Long bookingId : bookingIds) {
+            if (updated[i++] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(bookingId);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return bookingRepository.findOwnershipByIds(unknown).stream()
+                .collect(Collectors.toMap(BookingOwnershipView::getId, BookingOwnershipView::getStatus));
+    }
+
+    // Счётчики меняются только после коммита, чтобы откат транзакции их не испортил
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void releaseSlotOnRollback(Long bookingId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    intervalIndex.remove(bookingId);
+                }
+            }
+        });
+    }
+
     @Override
     @Transactional
     public BookingResponseDto updateBookingStatus(Long bookingId, Boolean approved, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+
+        int updated = bookingRepository.compareAndSetStatus(bookingId, userId, BookingStatus.WAITING, status);
+        if (updated == 0) {
+            throw statusTransitionFailure(bookingId, userId);
+        }
+
+        BookingResponseDto response = bookingRepository.findResponseById(bookingId)
                 .orElseThrow(() -> new EntityNotFoundException("Бронирование с ID " + bookingId + " не найдено"));
 
-        // Проверка, что пользователь - владелец вещи
-        if (!booking.getItem().getOwner().getId().equals(userId)) {
-            throw new AccessDeniedException("Подтверждать бронирование может только владелец вещи");
+        afterCommit(() -> counters.decided(response.getBooker().getId(), userId));
+        if (approved) {
+            // Сводка общая для всех запросов, поэтому незакоммиченное бронирование в неё не попадает
+            afterCommit(() -> bookingSummary.approved(response.getItem().getId(), bookingId,
+                    response.getBooker().getId(), response.getStart()));
+        } else {
+            // Пока отклонение не закоммичено, бронирование в базе ещё WAITING и его интервал должен оставаться занят
+            afterCommit(() -> intervalIndex.remove(bookingId));
+        }
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public List<BookingDecisionResultDto> updateBookingStatuses(List<BookingDecisionDto> decisions, Long userId) {
+        if (decisions.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Boolean> approvals = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (decision.getBookingId() == null || decision.getApproved() == null) {
+                throw new ValidationException("Для каждого бронирования нужно указать ID и решение");
+            }
+            if (approvals.put(decision.getBookingId(), decision.getApproved()) != null) {
+                throw new ValidationException("Бронирование с ID " + decision.getBookingId() + " указано дважды");
+            }
         }
 
-        // Проверка, что бронирование еще не подтверждено
-        if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new ValidationException("Статус бронирования уже изменен");
+        // Один запрос на проверку владельца и текущего статуса всей пачки
+        Map<Long, BookingOwnershipView> ownership = bookingRepository.findOwnershipByIds(approvals.keySet())
+                .stream()
+                .collect(Collectors.toMap(BookingOwnershipView::getId, Function.identity()));
+
+        Map<Long, BookingDecisionOutcome> outcomes = new HashMap<>();
+        Map<Long, BookingStatus> transitions = new LinkedHashMap<>();
+        approvals.forEach((bookingId, approved) -> {
+            BookingOwnershipView booking = ownership.get(bookingId);
+            if (booking == null) {
+                outcomes.put(bookingId, BookingDecisionOutcome.NOT_FOUND);
+            } else if (!booking.getOwnerId().equals(userId)) {
+                outcomes.put(bookingId, BookingDecisionOutcome.FORBIDDEN);
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                outcomes.put(bookingId, BookingDecisionOutcome.ALREADY_DECIDED);
+            } else {
+                transitions.put(bookingId, approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+            }
+        });
+
+        // Статус мог измениться между проверкой и обновлением, поэтому итог решает число изменённых строк
+        int[] updated = bookingRepository.compareAndSetStatuses(transitions, BookingStatus.WAITING);
+        Map<Long, BookingStatus> reread = rereadUnknownStatuses(transitions.keySet(), updated);
+        int i = 0;
+        List<BookingOwnershipView> decided = new ArrayList<>();
+        List<BookingOwnershipView> approvedBookings = new ArrayList<>();
+        List<Long> rejectedIds = new ArrayList<>();
+        for (Map.Entry<Long, BookingStatus> transition : transitions.entrySet()) {
+            Long bookingId = transition.getKey();
+            BookingOwnershipView booking = ownership.get(bookingId);
+            int updateCount = updated[i++];
+            boolean applied = updateCount == Statement.SUCCESS_NO_INFO
+                    ? transition.getValue() == reread.get(bookingId)
+                    : updateCount > 0;
+            if (!applied) {
+                outcomes.put(bookingId, BookingDecisionOutcome.ALREADY_DECIDED);
+                continue;
+            }
+            decided.add(booking);
+            if (transition.getValue() == BookingStatus.APPROVED) {
+                outcomes.put(bookingId, BookingDecisionOutcome.APPROVED);
+                approvedBookings.add(booking);
+            } else {
+                outcomes.put(bookingId, BookingDecisionOutcome.REJECTED);
+                rejectedIds.add(bookingId);
+            }
         }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking updatedBooking = bookingRepository.save(booking);
-        return BookingMapper.toDto(updatedBooking);
+        afterCommit(() -> {
+            rejectedIds.forEach(intervalIndex::remove);
+            decided.forEach(booking -> counters.decided(booking.getBookerId(), booking.getOwnerId()));
+            approvedBookings.forEach(booking -> bookingSummary.approved(booking.getItemId(), booking.getId(),
+                    booking.getBookerId(), booking.getStart()));
+        });
+
+        List<BookingDecisionResultDto> results = new ArrayList<>(approvals.size());
+        approvals.keySet().forEach(bookingId ->
+                results.add(new BookingDecisionResultDto(bookingId, outcomes.get(bookingId))));
+        return results;
     }
 
     @Override
@@ -87,7 +253,7 @@ public class BookingServiceImpl implements BookingService {
                 .orElseThrow(() -> new EntityNotFoundException("Бронирование с ID " + bookingId + " не найдено"));
 
         // Проверка прав доступа
-        if (!booking.getBooker().getId().equals(userId) && !booking.getItem().getOwner().getId().equals(userId)) {
+        if (!booking.getBooker().getId().equals(userId) && !userId.equals(booking.getItemOwnerId())) {
             throw new AccessDeniedException("Просматривать бронирование может только автор или владелец вещи");
         }
 
@@ -96,49 +262,112 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingResponseDto> getUserBookings(BookingState state, Long userId, int from, int size) {
-        if (!userRepository.existsById(userId)) {
-            throw new EntityNotFoundException("Пользователь с ID " + userId + " не найден");
-        }
+        return getBookings(BookingRole.BOOKER, state, userId, from, size);
+    }
 
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by("start").descending());
-        LocalDateTime now = LocalDateTime.now();
+    @Override
+    public List<BookingResponseDto> getOwnerBookings(BookingState state, Long userId, int from, int size) {
+        return getBookings(BookingRole.OWNER, state, userId, from, size);
+    }
 
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findByBookerIdOrderByStartDesc(userId, pageable);
-            case CURRENT -> bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-                    userId, now, now, pageable);
-            case PAST -> bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(userId, now, pageable);
-            case FUTURE -> bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(userId, now, pageable);
-            case WAITING -> bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING, pageable);
-            case REJECTED -> bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED, pageable);
-        };
+    @Override
+    public BookingPageDto getUserBookingsPage(BookingState state, Long userId, String cursor, int size) {
+        return getBookingsPage(BookingRole.BOOKER, state, userId, cursor, size);
+    }
 
-        return bookings.stream()
-                .map(BookingMapper::toDto)
-                .collect(Collectors.toList());
+    @Override
+    public BookingPageDto getOwnerBookingsPage(BookingState state, Long userId, String cursor, int size) {
+        return getBookingsPage(BookingRole.OWNER, state, userId, cursor, size);
     }
 
     @Override
-    public List<BookingResponseDto> getOwnerBookings(BookingState state, Long userId, int from, int size) {
-        if (!userRepository.existsById(userId)) {
-            throw new EntityNotFoundException("Пользователь с ID " + userId + " не найден");
+    public BookingCountsDto getUserBookingCounts(Long userId) {
+        return getBookingCounts(BookingRole.BOOKER, userId);
+    }
+
+    @Override
+    public BookingCountsDto getOwnerBookingCounts(Long userId) {
+        return getBookingCounts(BookingRole.OWNER, userId);
+    }
+
+    @Override
+    public ItemAvailabilityDto getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new EntityNotFoundException("Вещь с ID " + itemId + " не найдена");
         }
 
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by("start").descending());
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+
+        // Индекс хранит только незавершённые бронирования, поэтому прошлое в календарь не попадает
         LocalDateTime now = LocalDateTime.now();
+        LocalDateTime effectiveFrom = from.isBefore(now) ? now : from;
+
+        List<ItemAvailabilityDto.Period> freePeriods = effectiveFrom.isBefore(to)
+                ? intervalIndex.freePeriods(itemId, effectiveFrom, to).stream()
+                        .map(period -> new ItemAvailabilityDto.Period(period.start(), period.end()))
+                        .collect(Collectors.toList())
+                : List.of();
+
+        return new ItemAvailabilityDto(itemId, from, to, freePeriods);
+    }
+
+    private List<BookingResponseDto> getBookings(BookingRole role, BookingState state, Long userId,
+                                                 int from, int size) {
+        List<BookingResponseDto> bookings = bookingRepository.findBookings(role, userId, state, from, size);
+        // Непустая страница уже доказывает существование пользователя, лишний запрос не нужен
+        if (bookings.isEmpty()) {
+            checkUserExists(userId);
+        }
+        return bookings;
+    }
+
+    private BookingPageDto getBookingsPage(BookingRole role, BookingState state, Long userId, String cursor, int size) {
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть больше нуля");
+        }
 
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findByItemOwnerIdOrderByStartDesc(userId, pageable);
-            case CURRENT -> bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-                    userId, now, now, pageable);
-            case PAST -> bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(userId, now, pageable);
-            case FUTURE -> bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(userId, now, pageable);
-            case WAITING -> bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING, pageable);
-            case REJECTED -> bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED, pageable);
-        };
-
-        return bookings.stream()
-                .map(BookingMapper::toDto)
-                .collect(Collectors.toList());
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+        List<BookingResponseDto> bookings = bookingRepository.findBookingsAfter(
+                role, userId, state, SeekCursor.decode(cursor), size + 1);
+        if (bookings.isEmpty()) {
+            checkUserExists(userId);
+        }
+
+        String nextCursor = null;
+        if (bookings.size() > size) {
+            bookings = bookings.subList(0, size);
+            BookingResponseDto last = bookings.get(bookings.size() - 1);
+            nextCursor = new SeekCursor(last.getStart(), last.getId()).encode();
+        }
+        return new BookingPageDto(bookings, nextCursor);
+    }
+
+    private BookingCountsDto getBookingCounts(BookingRole role, Long userId) {
+        BookingCountsDto counts = counters.get(role, userId);
+        // Ненулевые счётчики уже доказывают существование пользователя
+        if (counts.getWaiting() == 0 && counts.getCurrent() == 0 && counts.getFuture() == 0) {
+            checkUserExists(userId);
+        }
+        return counts;
+    }
+
+    // Вызывается только после неудачного UPDATE, чтобы вернуть клиенту точную причину
+    private RuntimeException statusTransitionFailure(Long bookingId, Long userId) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new EntityNotFoundException("Бронирование с ID " + bookingId + " не найдено"));
+
+        if (!userId.equals(booking.getItemOwnerId())) {
+            return new AccessDeniedException("Подтверждать бронирование может только владелец вещи");
+        }
+
+        return new ValidationException("Статус бронирования уже изменен");
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("Пользователь с ID " + userId + " не найден");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping(path = "/items")
+@RequiredArgsConstructor
+@SuppressWarnings("unused")
+public class ItemAvailabilityController {
+    private final BookingService bookingService;
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getItemAvailability(
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return bookingService.getItemAvailability(itemId, from, to);
+    }
+}
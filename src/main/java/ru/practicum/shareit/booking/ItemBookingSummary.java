@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Последнее и следующее подтверждённые бронирования по каждой вещи.
+ * <p>
+ * Для вещи хранится последнее начавшееся APPROVED-бронирование и все ещё не начавшиеся.
+ * Переход бронирования через текущий момент не требует обновлений: «последнее» и «следующее»
+ * находятся поиском соседей момента {@code now}, а начавшиеся раньше последнего записи отбрасываются при чтении.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummary {
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, NavigableSet<Entry>> entriesByItem = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> entriesByBooking = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void warmUp() {
+        bookingRepository.findApprovedForSummary(LocalDateTime.now())
+                .forEach(booking -> approved(booking.getItemId(), booking.getId(), booking.getBookerId(),
+                        booking.getStart()));
+    }
+
+    public Summary get(Long itemId, LocalDateTime now) {
+        NavigableSet<Entry> entries = entriesByItem.get(itemId);
+        if (entries == null) {
+            return Summary.EMPTY;
+        }
+
+        Entry probe = new Entry(itemId, Long.MAX_VALUE, null, now);
+        Entry last = entries.floor(probe);
+        Entry next = entries.higher(probe);
+        if (last != null) {
+            entries.headSet(last, false).forEach(entry -> remove(entry.bookingId()));
+        }
+        return new Summary(toRef(last), toRef(next));
+    }
+
+    public void approved(Long itemId, Long bookingId, Long bookerId, LocalDateTime start) {
+        Entry entry = new Entry(itemId, bookingId, bookerId, start);
+        entriesByBooking.put(bookingId, entry);
+        entriesByItem.computeIfAbsent(itemId, id -> new ConcurrentSkipListSet<>(Entry.ORDER)).add(entry);
+    }
+
+    public void remove(Long bookingId) {
+        Entry entry = entriesByBooking.remove(bookingId);
+        if (entry != null) {
+            NavigableSet<Entry> entries = entriesByItem.get(entry.itemId());
+            if (entries != null) {
+                entries.remove(entry);
+            }
+        }
+    }
+
+    private static BookingRef toRef(Entry entry) {
+        return entry == null ? null : new BookingRef(entry.bookingId(), entry.bookerId());
+    }
+
+    public record BookingRef(Long bookingId, Long bookerId) {
+    }
+
+    public record Summary(BookingRef last, BookingRef next) {
+        private static final Summary EMPTY = new Summary(null, null);
+    }
+
+    private record Entry(Long itemId, Long bookingId, Long bookerId, LocalDateTime start) {
+        private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::start)
+                .thenComparing(Entry::bookingId);
+    }
+}
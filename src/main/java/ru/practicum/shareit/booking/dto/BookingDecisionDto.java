@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDecisionDto {
+    @NotNull(message = "ID бронирования не может быть пустым")
+    private Long bookingId;
+
+    @NotNull(message = "Решение по бронированию должно быть указано")
+    private Boolean approved;
+}
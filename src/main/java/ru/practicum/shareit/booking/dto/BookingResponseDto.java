@@ -18,6 +18,12 @@ public class BookingResponseDto {
     private Booker booker;
     private Item item;
 
+    // Для проекций в запросах: вложенные объекты собираются из плоских колонок
+    public BookingResponseDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                              Long bookerId, String bookerName, Long itemId, String itemName) {
+        this(id, start, end, status, new Booker(bookerId, bookerName), new Item(itemId, itemName));
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -4,12 +4,16 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.gateway.booking.dto.BookingDto;
 import ru.practicum.shareit.gateway.client.BookingClient;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -32,6 +36,23 @@ public class BookingController {
         return bookingClient.approve(bookingId, approved, userId);
     }
 
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> approveBatch(
+            @RequestBody @NotEmpty @Size(max = 100) List<@Valid BookingDecisionDto> decisions,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingClient.approveBatch(decisions, userId);
+    }
+
+    @GetMapping("/counts")
+    public ResponseEntity<Object> getCountsByBooker(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingClient.getCountsByBooker(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public ResponseEntity<Object> getCountsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingClient.getCountsByOwner(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getById(@PathVariable Long bookingId,
                                           @RequestHeader("X-Sharer-User-Id") Long userId) {
@@ -47,6 +68,15 @@ public class BookingController {
         return bookingClient.getAllByBooker(userId, state, from, size);
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<Object> getPageByBooker(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam String cursor,
+            @Positive @RequestParam(defaultValue = "10") Integer size) {
+        return bookingClient.getPageByBooker(userId, state, cursor, size);
+    }
+
     @GetMapping("/owner")
     public ResponseEntity<Object> getAllByOwner(
             @RequestHeader("X-Sharer-User-Id") Long userId,
@@ -55,4 +85,13 @@ public class BookingController {
             @Positive @RequestParam(defaultValue = "10") Integer size) {
         return bookingClient.getAllByOwner(userId, state, from, size);
     }
+
+    @GetMapping(path = "/owner", params = "cursor")
+    public ResponseEntity<Object> getPageByOwner(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam String cursor,
+            @Positive @RequestParam(defaultValue = "10") Integer size) {
+        return bookingClient.getPageByOwner(userId, state, cursor, size);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.gateway.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDecisionDto {
+    @NotNull(message = "Booking ID cannot be null")
+    private Long bookingId;
+
+    @NotNull(message = "Approved flag cannot be null")
+    private Boolean approved;
+}
@@ -1,10 +1,17 @@
 package ru.practicum.shareit.gateway.client;
 
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
@@ -67,6 +74,53 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Запрос к серверу выполняется сразу, а тело успешного ответа копируется клиенту по мере получения,
+     * не собираясь в памяти целиком. Статус сервера известен до того, как ответ шлюза отправлен:
+     * ошибка сервера передаётся клиенту со своим статусом и телом, а не обрывом ответа 200.
+     */
+    protected ResponseEntity<StreamingResponseBody> stream(String path, Long userId,
+                                                           @Nullable Map<String, Object> parameters) {
+        URI uri = rest.getUriTemplateHandler().expand(path, parameters != null ? parameters : Map.of());
+        ClientHttpResponse response;
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().addAll(defaultHeaders(userId));
+            request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON));
+            response = request.execute();
+        } catch (IOException e) {
+            throw ioError(uri, e);
+        }
+
+        try {
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                ResponseEntity.BodyBuilder error = ResponseEntity.status(response.getStatusCode());
+                MediaType contentType = response.getHeaders().getContentType();
+                if (contentType != null) {
+                    error.contentType(contentType);
+                }
+                byte[] body = StreamUtils.copyToByteArray(response.getBody());
+                response.close();
+                return error.body(out -> out.write(body));
+            }
+        } catch (IOException e) {
+            response.close();
+            throw ioError(uri, e);
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> {
+                    try (response) {
+                        StreamUtils.copy(response.getBody(), out);
+                    }
+                });
+    }
+
+    private static ResourceAccessException ioError(URI uri, IOException e) {
+        return new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+    }
+
     private ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId,
                                                       @Nullable Map<String, Object> parameters, @Nullable Object body) {
         HttpEntity<Object> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
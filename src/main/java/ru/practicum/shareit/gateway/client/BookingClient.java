@@ -7,7 +7,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionDto;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -33,10 +35,22 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
+    public ResponseEntity<Object> approveBatch(List<BookingDecisionDto> decisions, Long userId) {
+        return patch("/batch", userId, null, decisions);
+    }
+
     public ResponseEntity<Object> getById(Long bookingId, Long userId) {
         return get("/" + bookingId, userId);
     }
 
+    public ResponseEntity<Object> getCountsByBooker(Long userId) {
+        return get("/counts", userId);
+    }
+
+    public ResponseEntity<Object> getCountsByOwner(Long userId) {
+        return get("/owner/counts", userId);
+    }
+
     public ResponseEntity<Object> getAllByBooker(Long userId, String state, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "state", state,
@@ -54,4 +68,22 @@ public class BookingClient extends BaseClient {
         );
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
+
+    public ResponseEntity<Object> getPageByBooker(Long userId, String state, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state,
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getPageByOwner(Long userId, String state, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state,
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/owner?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
 }
\ No newline at end of file
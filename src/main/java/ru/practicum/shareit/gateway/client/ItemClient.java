@@ -6,10 +6,13 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.gateway.item.dto.ItemDto;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class ItemClient extends BaseClient {
@@ -41,16 +44,69 @@ public class ItemClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> search(String text, Integer from, Integer size) {
+    public ResponseEntity<StreamingResponseBody> exportByUserId(Long userId) {
+        return stream("", userId, null);
+    }
+
+    public ResponseEntity<Object> search(String text, String sort, Long ownerId, Long requestId,
+                                         Boolean hasComments, Boolean available, Integer from, Integer size) {
+        Map<String, Object> parameters = searchParameters(text, ownerId, requestId, hasComments, available);
+        parameters.put("sort", sort);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        return get(withQuery("/search", parameters), null, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportSearch(String text, Long ownerId, Long requestId,
+                                                              Boolean hasComments, Boolean available) {
+        Map<String, Object> parameters = searchParameters(text, ownerId, requestId, hasComments, available);
+        return stream(withQuery("/search", parameters), null, parameters);
+    }
+
+    public ResponseEntity<Object> suggest(String prefix, Integer limit) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "limit", limit
+        );
+        return get("/suggest?prefix={prefix}&limit={limit}", null, parameters);
+    }
+
+    public ResponseEntity<Object> getComments(Long itemId, String cursor, Integer size) {
+        if (cursor == null) {
+            return get("/" + itemId + "/comments?size={size}", null, Map.of("size", size));
+        }
         Map<String, Object> parameters = Map.of(
-                "text", text,
-                "from", from,
+                "cursor", cursor,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+        return get("/" + itemId + "/comments?cursor={cursor}&size={size}", null, parameters);
     }
 
     public ResponseEntity<Object> deleteItem(Long itemId, Long userId) {
         return delete("/" + itemId, userId);
     }
+
+    // Незаданные фасеты не передаются, чтобы сервер не ограничивал по ним выдачу
+    private static Map<String, Object> searchParameters(String text, Long ownerId, Long requestId,
+                                                        Boolean hasComments, Boolean available) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("text", text);
+        parameters.put("available", available);
+        if (ownerId != null) {
+            parameters.put("ownerId", ownerId);
+        }
+        if (requestId != null) {
+            parameters.put("requestId", requestId);
+        }
+        if (hasComments != null) {
+            parameters.put("hasComments", hasComments);
+        }
+        return parameters;
+    }
+
+    private static String withQuery(String path, Map<String, Object> parameters) {
+        return parameters.keySet().stream()
+                .map(name -> name + "={" + name + "}")
+                .collect(Collectors.joining("&", path + "?", ""));
+    }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package ru.practicum.shareit.gateway.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.gateway.client.ItemClient;
 import ru.practicum.shareit.gateway.item.dto.ItemDto;
 
@@ -43,10 +45,42 @@ public class ItemController {
         return itemClient.getByUserId(userId);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByUserId(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return itemClient.exportByUserId(userId);
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Object> search(@RequestParam String text,
+                                         @RequestParam(defaultValue = "ID") String sort,
+                                         @RequestParam(required = false) Long ownerId,
+                                         @RequestParam(required = false) Long requestId,
+                                         @RequestParam(required = false) Boolean hasComments,
+                                         @RequestParam(defaultValue = "true") Boolean available,
                                          @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
                                          @Positive @RequestParam(defaultValue = "10") Integer size) {
-        return itemClient.search(text, from, size);
+        return itemClient.search(text, sort, ownerId, requestId, hasComments, available, from, size);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSearch(@RequestParam String text,
+                                                              @RequestParam(required = false) Long ownerId,
+                                                              @RequestParam(required = false) Long requestId,
+                                                              @RequestParam(required = false) Boolean hasComments,
+                                                              @RequestParam(defaultValue = "true") Boolean available) {
+        return itemClient.exportSearch(text, ownerId, requestId, hasComments, available);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest(@RequestParam String prefix,
+                                          @Positive @RequestParam(defaultValue = "10") Integer limit) {
+        return itemClient.suggest(prefix, limit);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@PathVariable Long itemId,
+                                              @RequestParam(required = false) String cursor,
+                                              @Positive @RequestParam(defaultValue = "10") Integer size) {
+        return itemClient.getComments(itemId, cursor, size);
     }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item;
+
+public interface CommentCountView {
+    Long getItemId();
+
+    Long getCount();
+}
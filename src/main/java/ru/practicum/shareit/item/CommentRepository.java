@@ -1,11 +1,42 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByItemIdOrderByCreatedDesc(Long itemId);
+    long countByItemId(Long itemId);
 
-    List<Comment> findByItemIdInOrderByCreatedDesc(List<Long> itemIds);
+    @Query("SELECT c.item.id AS itemId, COUNT(c) AS count FROM Comment c " +
+            "WHERE c.item.id IN :itemIds GROUP BY c.item.id")
+    List<CommentCountView> countByItemIds(@Param("itemIds") Collection<Long> itemIds);
+
+    // Комментарии с именем автора одним запросом, от новых к старым; с курсором — строго после него
+    @Query("SELECT new ru.practicum.shareit.item.dto.CommentResponseDto(c.id, c.text, a.name, c.created) " +
+            "FROM Comment c JOIN c.author a WHERE c.item.id = :itemId " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<CommentResponseDto> findNewestByItemId(@Param("itemId") Long itemId, Pageable pageable);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.CommentResponseDto(c.id, c.text, a.name, c.created) " +
+            "FROM Comment c JOIN c.author a WHERE c.item.id = :itemId " +
+            "AND (c.created < :created OR (c.created = :created AND c.id < :id)) " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<CommentResponseDto> findByItemIdAfter(@Param("itemId") Long itemId,
+                                               @Param("created") LocalDateTime created,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+
+    // Не больше limit самых новых комментариев каждой вещи одним запросом
+    @Query(value = "SELECT id, text, author_name AS authorName, created, item_id AS itemId FROM (" +
+            "SELECT c.id, c.text, u.name AS author_name, c.created, c.item_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.created DESC, c.id DESC) AS rn " +
+            "FROM comments c JOIN users u ON u.id = c.author_id WHERE c.item_id IN (:itemIds)" +
+            ") ranked WHERE rn <= :limit ORDER BY item_id, created DESC, id DESC", nativeQuery = true)
+    List<CommentView> findNewestByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
 }
\ No newline at end of file
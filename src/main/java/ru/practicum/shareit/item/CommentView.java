@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+
+public interface CommentView {
+    Long getId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+
+    Long getItemId();
+}
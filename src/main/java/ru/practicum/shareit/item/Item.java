@@ -32,4 +32,14 @@ public class Item {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private ItemRequest request;
+
+    // Нормализованные слова названия и описания для поиска, см. ItemSearchTokens
+    @Column(name = "search_tokens", length = 2000)
+    private String searchTokens;
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchTokens() {
+        searchTokens = ItemSearchTokens.of(name, description).encode();
+    }
 }
\ No newline at end of file
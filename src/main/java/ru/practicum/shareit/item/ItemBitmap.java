@@ -0,0 +1,386 @@
+package ru.practicum.shareit.item;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Сжатое множество id вещей, устроенное как Roaring bitmap.
+ * <p>
+ * Id делятся на блоки по 2^16 значений по старшим битам. Разреженный блок хранит младшие 16 бит отсортированным
+ * массивом, плотный (больше {@link #ARRAY_LIMIT} значений) — битовой картой на 2^16 бит, поэтому и у владельца
+ * с тремя вещами, и у фасета «доступна» на весь каталог расход памяти пропорционален числу id.
+ * <p>
+ * Блоки неизменяемы: изменение заменяет блок новым. Поэтому {@link #snapshot()} копирует только карту блоков,
+ * а снимок можно читать без блокировок, пока исходное множество меняется. Сам объект не потокобезопасен.
+ * <p>
+ * Копирование блока при каждой вставке нужно только после публикации множества. Большие множества при прогреве
+ * собираются через {@link Builder}: до вызова {@link Builder#build()} блоки растут на месте.
+ */
+public final class ItemBitmap {
+    static final int ARRAY_LIMIT = 4096;
+
+    private final NavigableMap<Integer, Container> containers;
+    private long cardinality;
+
+    public ItemBitmap() {
+        this(new TreeMap<>(), 0);
+    }
+
+    private ItemBitmap(NavigableMap<Integer, Container> containers, long cardinality) {
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    public static ItemBitmap of(long... ids) {
+        Builder builder = new Builder();
+        for (long id : ids) {
+            builder.add(id);
+        }
+        return builder.build();
+    }
+
+    public void add(long id) {
+        int key = high(id);
+        Container container = containers.get(key);
+        if (container == null) {
+            container = ArrayContainer.EMPTY;
+        }
+        Container updated = container.add(low(id));
+        if (updated != container) {
+            containers.put(key, updated);
+            cardinality++;
+        }
+    }
+
+    public void remove(long id) {
+        int key = high(id);
+        Container container = containers.get(key);
+        if (container == null) {
+            return;
+        }
+        Container updated = container.remove(low(id));
+        if (updated != container) {
+            cardinality--;
+            if (updated.cardinality() == 0) {
+                containers.remove(key);
+            } else {
+                containers.put(key, updated);
+            }
+        }
+    }
+
+    public boolean contains(long id) {
+        Container container = containers.get(high(id));
+        return container != null && container.contains(low(id));
+    }
+
+    public long cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Пересечение с другим множеством; сравниваются только блоки, которые есть в обоих.
+     */
+    public ItemBitmap and(ItemBitmap other) {
+        ItemBitmap smaller = containers.size() <= other.containers.size() ? this : other;
+        ItemBitmap larger = smaller == this ? other : this;
+
+        NavigableMap<Integer, Container> result = new TreeMap<>();
+        long resultCardinality = 0;
+        for (Map.Entry<Integer, Container> entry : smaller.containers.entrySet()) {
+            Container pair = larger.containers.get(entry.getKey());
+            if (pair != null) {
+                Container intersection = entry.getValue().and(pair);
+                if (intersection.cardinality() > 0) {
+                    result.put(entry.getKey(), intersection);
+                    resultCardinality += intersection.cardinality();
+                }
+            }
+        }
+        return new ItemBitmap(result, resultCardinality);
+    }
+
+    /**
+     * Все id по возрастанию.
+     */
+    public long[] toArray() {
+        long[] result = new long[Math.toIntExact(cardinality)];
+        int size = 0;
+        for (Map.Entry<Integer, Container> entry : containers.entrySet()) {
+            size = entry.getValue().copyTo(result, size, (long) entry.getKey() << 16);
+        }
+        return result;
+    }
+
+    public ItemBitmap snapshot() {
+        return new ItemBitmap(new TreeMap<>(containers), cardinality);
+    }
+
+    private static int high(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id вещи не может быть отрицательным: " + id);
+        }
+        return Math.toIntExact(id >>> 16);
+    }
+
+    private static char low(long id) {
+        return (char) (id & 0xFFFF);
+    }
+
+    /**
+     * Изменяемая сборка множества. Id можно добавлять в любом порядке, но возрастающие дописываются в конец блока
+     * без сдвига. После {@link #build()} строитель больше не используется: готовые блоки отдаются без копирования.
+     */
+    public static final class Builder {
+        private final NavigableMap<Integer, BlockBuilder> blocks = new TreeMap<>();
+
+        public Builder add(long id) {
+            blocks.computeIfAbsent(high(id), key -> new BlockBuilder()).add(low(id));
+            return this;
+        }
+
+        public ItemBitmap build() {
+            NavigableMap<Integer, Container> containers = new TreeMap<>();
+            long cardinality = 0;
+            for (Map.Entry<Integer, BlockBuilder> entry : blocks.entrySet()) {
+                containers.put(entry.getKey(), entry.getValue().build());
+                cardinality += entry.getValue().cardinality;
+            }
+            return new ItemBitmap(containers, cardinality);
+        }
+    }
+
+    // Блок в сборке: растущий отсортированный массив, а после ARRAY_LIMIT значений — битовая карта
+    private static final class BlockBuilder {
+        private char[] values = new char[4];
+        private long[] words;
+        private int cardinality;
+
+        private void add(char value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) == 0) {
+                    words[value >>> 6] |= bit;
+                    cardinality++;
+                }
+                return;
+            }
+            int index = cardinality == 0 || values[cardinality - 1] < value
+                    ? -cardinality - 1
+                    : Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                words = BitmapContainer.from(values).words;
+                values = null;
+                add(value);
+                return;
+            }
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_LIMIT));
+            }
+            int insertAt = -index - 1;
+            System.arraycopy(values, insertAt, values, insertAt + 1, cardinality - insertAt);
+            values[insertAt] = value;
+            cardinality++;
+        }
+
+        private Container build() {
+            return words != null
+                    ? new BitmapContainer(words, cardinality)
+                    : new ArrayContainer(Arrays.copyOf(values, cardinality));
+        }
+    }
+
+    private interface Container {
+        /**
+         * Блок с добавленным значением или этот же блок, если значение в нём уже было.
+         */
+        Container add(char value);
+
+        /**
+         * Блок без значения или этот же блок, если значения в нём не было.
+         */
+        Container remove(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        Container and(Container other);
+
+        /**
+         * Копирует значения блока по возрастанию, прибавляя {@code base}; возвращает следующую свободную позицию.
+         */
+        int copyTo(long[] target, int offset, long base);
+    }
+
+    private static final class ArrayContainer implements Container {
+        private static final ArrayContainer EMPTY = new ArrayContainer(new char[0]);
+
+        private final char[] values;
+
+        private ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Container add(char value) {
+            int index = Arrays.binarySearch(values, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (values.length == ARRAY_LIMIT) {
+                return BitmapContainer.from(values).add(value);
+            }
+            int insertAt = -index - 1;
+            char[] updated = new char[values.length + 1];
+            System.arraycopy(values, 0, updated, 0, insertAt);
+            updated[insertAt] = value;
+            System.arraycopy(values, insertAt, updated, insertAt + 1, values.length - insertAt);
+            return new ArrayContainer(updated);
+        }
+
+        @Override
+        public Container remove(char value) {
+            int index = Arrays.binarySearch(values, value);
+            if (index < 0) {
+                return this;
+            }
+            char[] updated = new char[values.length - 1];
+            System.arraycopy(values, 0, updated, 0, index);
+            System.arraycopy(values, index + 1, updated, index, values.length - index - 1);
+            return new ArrayContainer(updated);
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return values.length;
+        }
+
+        @Override
+        public Container and(Container other) {
+            char[] result = new char[values.length];
+            int size = 0;
+            for (char value : values) {
+                if (other.contains(value)) {
+                    result[size++] = value;
+                }
+            }
+            return new ArrayContainer(Arrays.copyOf(result, size));
+        }
+
+        @Override
+        public int copyTo(long[] target, int offset, long base) {
+            for (char value : values) {
+                target[offset++] = base + value;
+            }
+            return offset;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private static final int WORDS = (1 << 16) / Long.SIZE;
+
+        private final long[] words;
+        private final int cardinality;
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        private static BitmapContainer from(char[] values) {
+            long[] words = new long[WORDS];
+            for (char value : values) {
+                words[value >>> 6] |= 1L << value;
+            }
+            return new BitmapContainer(words, values.length);
+        }
+
+        @Override
+        public Container add(char value) {
+            if (contains(value)) {
+                return this;
+            }
+            long[] updated = words.clone();
+            updated[value >>> 6] |= 1L << value;
+            return new BitmapContainer(updated, cardinality + 1);
+        }
+
+        @Override
+        public Container remove(char value) {
+            if (!contains(value)) {
+                return this;
+            }
+            long[] updated = words.clone();
+            updated[value >>> 6] &= ~(1L << value);
+            return compact(updated, cardinality - 1);
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (!(other instanceof BitmapContainer bitmap)) {
+                return other.and(this);
+            }
+            long[] result = new long[WORDS];
+            int resultCardinality = 0;
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words[i] & bitmap.words[i];
+                resultCardinality += Long.bitCount(result[i]);
+            }
+            return compact(result, resultCardinality);
+        }
+
+        @Override
+        public int copyTo(long[] target, int offset, long base) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    target[offset++] = base + i * Long.SIZE + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return offset;
+        }
+
+        // Блок, ставший разреженным, снова хранится массивом
+        private static Container compact(long[] words, int cardinality) {
+            if (cardinality > ARRAY_LIMIT) {
+                return new BitmapContainer(words, cardinality);
+            }
+            char[] values = new char[cardinality];
+            int size = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[size++] = (char) (i * Long.SIZE + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values);
+        }
+    }
+}
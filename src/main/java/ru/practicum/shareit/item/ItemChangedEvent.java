@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item;
+
+/**
+ * Вещь или её комментарии изменились. Публикуется внутри транзакции,
+ * слушатели получают событие после коммита.
+ */
+public record ItemChangedEvent(Long itemId) {
+}
@@ -1,13 +1,23 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.dto.SearchCacheStatsDto;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/items")
@@ -15,6 +25,7 @@ import java.util.List;
 @SuppressWarnings("unused")
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemDto createItem(@Valid @RequestBody ItemDto itemDto,
@@ -43,11 +54,50 @@ public class ItemController {
         return itemService.getUserItems(userId, from, size);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUserItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return ndjson(out -> itemService.streamUserItems(userId, lines(out)));
+    }
+
     @GetMapping("/search")
     public List<ItemDto> searchItems(@RequestParam String text,
+                                     @RequestParam(defaultValue = "ID") ItemSearchSort sort,
+                                     @RequestParam(required = false) Long ownerId,
+                                     @RequestParam(required = false) Long requestId,
+                                     @RequestParam(required = false) Boolean hasComments,
+                                     @RequestParam(defaultValue = "true") boolean available,
                                      @RequestParam(defaultValue = "0") int from,
                                      @RequestParam(defaultValue = "10") int size) {
-        return itemService.searchItems(text, from, size);
+        return itemService.searchItems(text, sort, new ItemSearchFilter(ownerId, requestId, hasComments, available),
+                from, size);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSearch(@RequestParam String text,
+                                                              @RequestParam(required = false) Long ownerId,
+                                                              @RequestParam(required = false) Long requestId,
+                                                              @RequestParam(required = false) Boolean hasComments,
+                                                              @RequestParam(defaultValue = "true") boolean available) {
+        ItemSearchFilter filter = new ItemSearchFilter(ownerId, requestId, hasComments, available);
+        return ndjson(out -> itemService.streamSearch(text, filter, lines(out)));
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestNames(@RequestParam String prefix,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        return itemService.suggestNames(prefix, limit);
+    }
+
+    @GetMapping("/search/stats")
+    public SearchCacheStatsDto getSearchCacheStats() {
+        return itemService.getSearchCacheStats();
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public CommentPageDto getComments(@PathVariable Long itemId,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "10") int size) {
+        return itemService.getComments(itemId, cursor, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -56,4 +106,22 @@ public class ItemController {
                                          @RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemService.addComment(itemId, commentDto, userId);
     }
+
+    private static ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Каждая вещь пишется отдельной строкой сразу, как прочитана из курсора
+    private <T> Consumer<T> lines(OutputStream out) {
+        return value -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(value));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
 }
\ No newline at end of file
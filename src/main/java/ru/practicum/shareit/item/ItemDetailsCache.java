@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Кэш общей для всех пользователей части карточки вещи: поля вещи и комментарии.
+ * <p>
+ * Ограничен по размеру (вытесняется давно не читанная запись) и по времени жизни записи.
+ * Запись сбрасывается после коммита изменений вещи или нового комментария. Бронирования владельца
+ * в кэш не попадают: они накладываются при каждом чтении из сводки бронирований, поэтому подтверждение
+ * бронирования кэш не затрагивает.
+ */
+@Component
+public class ItemDetailsCache {
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final Map<Long, Entry> entries;
+    // Растёт при каждом сбросе: загрузка, начавшаяся до сброса, не должна вернуть в кэш устаревшие данные
+    private long invalidations;
+
+    public ItemDetailsCache(@Value("${shareit.item.cache.max-size:1000}") int maxSize,
+                            @Value("${shareit.item.cache.ttl-ms:60000}") long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > ItemDetailsCache.this.maxSize;
+            }
+        };
+    }
+
+    public ItemDetails get(Long itemId, Function<Long, ItemDetails> loader) {
+        long observed;
+        synchronized (this) {
+            Entry entry = entries.get(itemId);
+            if (entry != null && System.nanoTime() - entry.loadedAt() < ttlNanos) {
+                return entry.details();
+            }
+            observed = invalidations;
+        }
+
+        // Загрузка идёт без блокировки, чтобы медленный запрос не задерживал чтение других вещей
+        ItemDetails details = loader.apply(itemId);
+        synchronized (this) {
+            if (observed == invalidations) {
+                entries.put(itemId, new Entry(details, System.nanoTime()));
+            }
+        }
+        return details;
+    }
+
+    public synchronized void invalidate(Long itemId) {
+        invalidations++;
+        entries.remove(itemId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidate(event.itemId());
+    }
+
+    /**
+     * Неизменяемый снимок карточки. {@link #toDto()} каждый раз создаёт новый DTO,
+     * поэтому добавление бронирований не меняет закэшированную запись.
+     */
+    public record ItemDetails(Long id, Long ownerId, String name, String description, Boolean available,
+                              List<CommentResponseDto> comments, long commentsCount) {
+        public ItemDetails {
+            comments = List.copyOf(comments);
+        }
+
+        public ItemWithBookingsDto toDto() {
+            return new ItemWithBookingsDto(id, name, description, available, null, null, comments, commentsCount);
+        }
+    }
+
+    private record Entry(ItemDetails details, long loadedAt) {
+    }
+}
@@ -0,0 +1,171 @@
+package ru.practicum.shareit.item;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Фасеты вещей для фильтрации поиска: владелец, запрос, наличие комментариев и доступность.
+ * <p>
+ * Для каждого значения фасета хранится {@link ItemBitmap} id вещей, поэтому фильтр — это пересечение нескольких
+ * сжатых множеств, начиная с самого маленького, а не условие в SQL. Текстовый поиск затем только проверяет,
+ * входит ли найденная вещь в пересечение. Индекс строится при старте и обновляется после коммита изменений вещи
+ * или её комментариев, как и текстовый индекс. При прогреве множества собираются {@link ItemBitmap.Builder}
+ * и публикуются целиком, поэтому блоки не копируются на каждую вещь.
+ */
+@Component
+public class ItemFacetIndex {
+    private final ItemRepository itemRepository;
+    private final int warmUpBatchSize;
+
+    private final Map<Long, ItemBitmap> itemsByOwner = new HashMap<>();
+    private final Map<Long, ItemBitmap> itemsByRequest = new HashMap<>();
+    private final Map<Boolean, ItemBitmap> itemsByAvailability = new HashMap<>();
+    private final Map<Boolean, ItemBitmap> itemsByComments = new HashMap<>();
+    private final Map<Long, Facets> facetsByItem = new HashMap<>();
+
+    public ItemFacetIndex(ItemRepository itemRepository,
+                          @Value("${shareit.item.search.warm-up-batch-size:1000}") int warmUpBatchSize) {
+        this.itemRepository = itemRepository;
+        this.warmUpBatchSize = warmUpBatchSize;
+    }
+
+    /**
+     * Загружает фасеты всех вещей и заменяет ими текущее содержимое индекса.
+     */
+    @PostConstruct
+    public void warmUp() {
+        Map<Long, Facets> facets = new HashMap<>();
+        Map<Long, ItemBitmap.Builder> owners = new HashMap<>();
+        Map<Long, ItemBitmap.Builder> requests = new HashMap<>();
+        Map<Boolean, ItemBitmap.Builder> availability = new HashMap<>();
+        Map<Boolean, ItemBitmap.Builder> comments = new HashMap<>();
+
+        Long afterId = 0L;
+        List<ItemFacetView> batch;
+        do {
+            batch = itemRepository.findFacetsAfter(afterId, PageRequest.of(0, warmUpBatchSize));
+            for (ItemFacetView item : batch) {
+                Long itemId = item.getId();
+                Facets itemFacets = Facets.of(item);
+                facets.put(itemId, itemFacets);
+                owners.computeIfAbsent(itemFacets.ownerId(), id -> new ItemBitmap.Builder()).add(itemId);
+                if (itemFacets.requestId() != null) {
+                    requests.computeIfAbsent(itemFacets.requestId(), id -> new ItemBitmap.Builder()).add(itemId);
+                }
+                availability.computeIfAbsent(itemFacets.available(), flag -> new ItemBitmap.Builder()).add(itemId);
+                comments.computeIfAbsent(itemFacets.hasComments(), flag -> new ItemBitmap.Builder()).add(itemId);
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == warmUpBatchSize);
+
+        synchronized (this) {
+            facetsByItem.clear();
+            facetsByItem.putAll(facets);
+            publish(itemsByOwner, owners);
+            publish(itemsByRequest, requests);
+            publish(itemsByAvailability, availability);
+            publish(itemsByComments, comments);
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        itemRepository.findFacetsById(event.itemId())
+                .ifPresentOrElse(item -> put(item.getId(), Facets.of(item)), () -> remove(event.itemId()));
+    }
+
+    /**
+     * Снимок id вещей, подходящих под все заданные фасеты. Его можно читать после выхода из метода:
+     * последующие изменения индекса на него не влияют.
+     */
+    public synchronized ItemBitmap filter(ItemSearchFilter filter) {
+        List<ItemBitmap> selected = new ArrayList<>(4);
+        selected.add(itemsByAvailability.getOrDefault(filter.available(), new ItemBitmap()));
+        if (filter.hasComments() != null) {
+            selected.add(itemsByComments.getOrDefault(filter.hasComments(), new ItemBitmap()));
+        }
+        if (filter.ownerId() != null) {
+            selected.add(itemsByOwner.getOrDefault(filter.ownerId(), new ItemBitmap()));
+        }
+        if (filter.requestId() != null) {
+            selected.add(itemsByRequest.getOrDefault(filter.requestId(), new ItemBitmap()));
+        }
+
+        // Пересечение не больше самого маленького множества, с него и начинаем
+        selected.sort(Comparator.comparingLong(ItemBitmap::cardinality));
+        ItemBitmap result = selected.get(0).snapshot();
+        for (int i = 1; i < selected.size() && !result.isEmpty(); i++) {
+            result = result.and(selected.get(i));
+        }
+        return result;
+    }
+
+    public synchronized void put(Long itemId, Facets facets) {
+        Facets previous = facetsByItem.put(itemId, facets);
+        if (facets.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            unlink(itemId, previous);
+        }
+
+        itemsByOwner.computeIfAbsent(facets.ownerId(), id -> new ItemBitmap()).add(itemId);
+        if (facets.requestId() != null) {
+            itemsByRequest.computeIfAbsent(facets.requestId(), id -> new ItemBitmap()).add(itemId);
+        }
+        itemsByAvailability.computeIfAbsent(facets.available(), flag -> new ItemBitmap()).add(itemId);
+        itemsByComments.computeIfAbsent(facets.hasComments(), flag -> new ItemBitmap()).add(itemId);
+    }
+
+    public synchronized void remove(Long itemId) {
+        Facets facets = facetsByItem.remove(itemId);
+        if (facets != null) {
+            unlink(itemId, facets);
+        }
+    }
+
+    private void unlink(Long itemId, Facets facets) {
+        unlink(itemsByOwner, facets.ownerId(), itemId);
+        if (facets.requestId() != null) {
+            unlink(itemsByRequest, facets.requestId(), itemId);
+        }
+        unlink(itemsByAvailability, facets.available(), itemId);
+        unlink(itemsByComments, facets.hasComments(), itemId);
+    }
+
+    private static <K> void publish(Map<K, ItemBitmap> itemsByValue, Map<K, ItemBitmap.Builder> built) {
+        itemsByValue.clear();
+        built.forEach((value, items) -> itemsByValue.put(value, items.build()));
+    }
+
+    private static <K> void unlink(Map<K, ItemBitmap> itemsByValue, K value, Long itemId) {
+        ItemBitmap items = itemsByValue.get(value);
+        if (items != null) {
+            items.remove(itemId);
+            if (items.isEmpty()) {
+                itemsByValue.remove(value);
+            }
+        }
+    }
+
+    public record Facets(Long ownerId, Long requestId, boolean available, boolean hasComments) {
+        static Facets of(ItemFacetView item) {
+            return new Facets(item.getOwnerId(), item.getRequestId(), Boolean.TRUE.equals(item.getAvailable()),
+                    item.getCommentsCount() != null && item.getCommentsCount() > 0);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item;
+
+public interface ItemFacetView {
+    Long getId();
+
+    Long getOwnerId();
+
+    Long getRequestId();
+
+    Boolean getAvailable();
+
+    Long getCommentsCount();
+}
@@ -26,6 +26,29 @@ public class ItemMapper {
         );
     }
 
+    public static ItemDto toDto(ItemView item) {
+        return new ItemDto(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                item.getRequestId()
+        );
+    }
+
+    public static ItemWithBookingsDto toItemWithBookingsDto(ItemView item) {
+        return new ItemWithBookingsDto(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                null,
+                null,
+                null,
+                null
+        );
+    }
+
     public static ItemWithBookingsDto toItemWithBookingsDto(Item item) {
         return new ItemWithBookingsDto(
                 item.getId(),
@@ -34,6 +57,7 @@ public class ItemMapper {
                 item.getAvailable(),
                 null,
                 null,
+                null,
                 null
         );
     }
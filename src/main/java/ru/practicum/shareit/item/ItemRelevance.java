@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Релевантность вещи поисковому запросу.
+ * <p>
+ * Для каждого слова запроса суммируются вхождения слов вещи, которые его содержат: слово, совпавшее целиком,
+ * весит больше, чем слово, в котором запрос лишь встречается, а совпадения в названии весят больше,
+ * чем в описании. Слова и запроса, и вещи сравниваются после {@link TextNormalizer}.
+ */
+public final class ItemRelevance {
+    static final int NAME_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+    static final int EXACT_MATCH = 2;
+    static final int PARTIAL_MATCH = 1;
+
+    private ItemRelevance() {
+    }
+
+    /**
+     * Сколько раз встречается каждое из нормализованных слов.
+     */
+    public static Map<String, Integer> frequencies(List<String> tokens) {
+        return tokens.stream()
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), token -> 1, Integer::sum));
+    }
+
+    public static int score(Collection<String> queryWords, Map<String, Integer> name,
+                            Map<String, Integer> description) {
+        int score = 0;
+        for (String queryWord : queryWords) {
+            score += NAME_WEIGHT * fieldScore(queryWord, name)
+                    + DESCRIPTION_WEIGHT * fieldScore(queryWord, description);
+        }
+        return score;
+    }
+
+    private static int fieldScore(String queryWord, Map<String, Integer> field) {
+        int score = 0;
+        for (Map.Entry<String, Integer> word : field.entrySet()) {
+            if (word.getKey().equals(queryWord)) {
+                score += EXACT_MATCH * word.getValue();
+            } else if (word.getKey().contains(queryWord)) {
+                score += PARTIAL_MATCH * word.getValue();
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Первые {@code capacity} вещей по релевантности, при равенстве — по возрастанию id.
+     * <p>
+     * Куча ограничена размером запрошенной страницы вместе со смещением: её вершина — худшая из отобранных,
+     * и кандидат хуже неё отбрасывается сразу, поэтому все кандидаты целиком в памяти не держатся.
+     */
+    public static final class TopK {
+        private static final Comparator<Ranked> ORDER = Comparator.comparingInt(Ranked::score)
+                .thenComparing(Ranked::itemId, Comparator.reverseOrder());
+
+        private final int capacity;
+        private final PriorityQueue<Ranked> heap;
+
+        public TopK(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(Math.max(1, capacity), ORDER);
+        }
+
+        public void offer(Long itemId, int score) {
+            if (capacity == 0) {
+                return;
+            }
+            Ranked candidate = new Ranked(itemId, score);
+            if (heap.size() < capacity) {
+                heap.add(candidate);
+            } else if (ORDER.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        /**
+         * Отобранные id от лучшего к худшему, начиная с позиции {@code from}.
+         */
+        public List<Long> page(int from) {
+            List<Ranked> ranked = new ArrayList<>(heap);
+            ranked.sort(ORDER.reversed());
+            return ranked.stream()
+                    .skip(from)
+                    .map(Ranked::itemId)
+                    .collect(Collectors.toList());
+        }
+
+        private record Ranked(Long itemId, int score) {
+        }
+    }
+}
@@ -1,21 +1,92 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findByOwnerIdOrderById(Long ownerId, Pageable pageable);
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description, i.available AS available, " +
+            "r.id AS requestId " +
+            "FROM Item i LEFT JOIN i.request r " +
+            "WHERE i.owner.id = :ownerId " +
+            "ORDER BY i.id")
+    List<ItemView> findByOwnerIdOrderById(@Param("ownerId") Long ownerId, Pageable pageable);
 
-    @Query("SELECT i FROM Item i WHERE " +
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description, i.available AS available, " +
+            "r.id AS requestId " +
+            "FROM Item i LEFT JOIN i.request r " +
+            "WHERE i.owner.id = :ownerId " +
+            "ORDER BY i.id")
+    Stream<ItemView> streamByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description, i.available AS available, " +
+            "r.id AS requestId " +
+            "FROM Item i LEFT JOIN i.request r WHERE " +
             "(LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) OR " +
             "LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))) AND " +
             "i.available = true")
-    List<Item> searchAvailableItems(@Param("text") String text, Pageable pageable);
+    List<ItemView> searchAvailableItems(@Param("text") String text, Pageable pageable);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description, i.available AS available, " +
+            "r.id AS requestId, i.searchTokens AS searchTokens " +
+            "FROM Item i LEFT JOIN i.request r " +
+            "WHERE i.id = :id")
+    Optional<ItemView> findViewById(@Param("id") Long id);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description, i.available AS available, " +
+            "r.id AS requestId " +
+            "FROM Item i LEFT JOIN i.request r " +
+            "WHERE i.id IN :ids")
+    List<ItemView> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description, i.available AS available, " +
+            "r.id AS requestId, i.searchTokens AS searchTokens " +
+            "FROM Item i LEFT JOIN i.request r " +
+            "WHERE i.available = true AND i.id > :afterId " +
+            "ORDER BY i.id")
+    List<ItemView> findAvailableAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description, i.available AS available, " +
+            "r.id AS requestId, i.searchTokens AS searchTokens " +
+            "FROM Item i LEFT JOIN i.request r " +
+            "WHERE i.id > :afterId " +
+            "ORDER BY i.id")
+    List<ItemView> findViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT i.id AS id, i.owner.id AS ownerId, r.id AS requestId, i.available AS available, " +
+            "(SELECT COUNT(c) FROM Comment c WHERE c.item = i) AS commentsCount " +
+            "FROM Item i LEFT JOIN i.request r " +
+            "WHERE i.id > :afterId " +
+            "ORDER BY i.id")
+    List<ItemFacetView> findFacetsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT i.id AS id, i.owner.id AS ownerId, r.id AS requestId, i.available AS available, " +
+            "(SELECT COUNT(c) FROM Comment c WHERE c.item = i) AS commentsCount " +
+            "FROM Item i LEFT JOIN i.request r " +
+            "WHERE i.id = :id")
+    Optional<ItemFacetView> findFacetsById(@Param("id") Long id);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description " +
+            "FROM Item i " +
+            "WHERE i.searchTokens IS NULL AND i.id > :afterId " +
+            "ORDER BY i.id")
+    List<ItemView> findWithoutSearchTokensAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.searchTokens = :searchTokens WHERE i.id = :id")
+    int updateSearchTokens(@Param("id") Long id, @Param("searchTokens") String searchTokens);
 
     @SuppressWarnings("unused")
     List<Item> findByRequestId(Long requestId);
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.SearchCacheStatsDto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш страниц поиска: нормализованный запрос, сортировка, фасеты и страница → упорядоченные id вещей.
+ * <p>
+ * Записи не сбрасываются по одной: любое изменение каталога увеличивает общую эпоху, и запись,
+ * сохранённая в прошлой эпохе, считается промахом. Поэтому изменение вещи стоит одного инкремента
+ * независимо от размера кэша, а устаревшие записи вытесняются как давно не читанные.
+ */
+@Component
+public class ItemSearchCache {
+    private final int maxSize;
+
+    private final Map<Key, Entry> entries;
+    private final AtomicLong epoch = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ItemSearchCache(@Value("${shareit.item.search.cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > ItemSearchCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Запрос в нижнем регистре без лишних пробелов: под этим текстом запрос и кэшируется, и выполняется.
+     */
+    public static String normalize(String text) {
+        return text.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    public List<Long> get(String normalizedText, ItemSearchSort sort, ItemSearchFilter filter, int from, int size,
+                          Supplier<List<Long>> loader) {
+        Key key = new Key(normalizedText, sort, filter, from, size);
+        // Эпоха читается до загрузки: если каталог изменится во время поиска, результат сразу окажется устаревшим
+        long observed = epoch.get();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.epoch() == observed) {
+                hits.incrementAndGet();
+                return entry.itemIds();
+            }
+        }
+
+        misses.incrementAndGet();
+        List<Long> itemIds = List.copyOf(loader.get());
+        synchronized (this) {
+            // Параллельный поиск мог уже сохранить результат более поздней эпохи — его не перезаписываем
+            Entry current = entries.get(key);
+            if (current == null || current.epoch() < observed) {
+                entries.put(key, new Entry(itemIds, observed));
+            }
+        }
+        return itemIds;
+    }
+
+    // Эпоха растёт после обновления индексов: иначе параллельный поиск успел бы сохранить
+    // в новой эпохе результат, прочитанный из ещё не обновлённого индекса
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        epoch.incrementAndGet();
+    }
+
+    public synchronized SearchCacheStatsDto getStats() {
+        return new SearchCacheStatsDto(hits.get(), misses.get(), entries.size(), epoch.get());
+    }
+
+    private record Key(String text, ItemSearchSort sort, ItemSearchFilter filter, int from, int size) {
+    }
+
+    private record Entry(List<Long> itemIds, long epoch) {
+    }
+}
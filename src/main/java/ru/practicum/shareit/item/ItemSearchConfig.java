@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Configuration
+public class ItemSearchConfig {
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    /**
+     * На PostgreSQL поиск идёт по триграммным индексам в базе, на остальных базах (H2) — по индексу в памяти.
+     */
+    @Bean
+    public ItemSearchStrategy itemSearchStrategy(DataSource dataSource,
+                                                 ItemRepository itemRepository,
+                                                 JdbcTemplate jdbcTemplate,
+                                                 @Value("${shareit.item.search.warm-up-batch-size:1000}")
+                                                 int warmUpBatchSize) {
+        if (POSTGRESQL.equals(databaseProductName(dataSource))) {
+            return new PostgresItemSearch(jdbcTemplate);
+        }
+        return new ItemSearchIndex(itemRepository, warmUpBatchSize);
+    }
+
+    private static String databaseProductName(DataSource dataSource) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item;
+
+/**
+ * Фасетные фильтры поиска вещей; {@code null} означает, что фасет не ограничивает выдачу.
+ * Доступность задаётся всегда: по умолчанию ищутся только доступные вещи.
+ */
+public record ItemSearchFilter(Long ownerId, Long requestId, Boolean hasComments, boolean available) {
+    public static final ItemSearchFilter AVAILABLE = new ItemSearchFilter(null, null, null, true);
+
+    /**
+     * Задана только доступность: тогда пересечение фасетов совпадает с условием {@code available} в SQL.
+     */
+    public boolean availabilityOnly() {
+        return ownerId == null && requestId == null && hasComments == null;
+    }
+}
@@ -0,0 +1,288 @@
+package ru.practicum.shareit.item;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Инвертированный индекс слов названия и описания вещей.
+ * <p>
+ * Для каждого слова хранится упорядоченное множество id вещей, а для каждой вещи — её слова с числом вхождений
+ * отдельно для названия и описания: по ним убираются старые записи при изменении вещи и считается релевантность.
+ * Слово запроса ищется как префикс слов вещи, несколько слов запроса должны встретиться все
+ * (правило общее для реализаций, см. {@link ItemSearchTokens}).
+ * Слова вещи берутся уже нормализованными из {@code search_tokens}, при старте каталог заново не разбирается.
+ * <p>
+ * Совпадения не собираются в отдельное множество: перебираются id самого маленького из множеств слов запроса,
+ * а остальные слова только проверяются для каждого id, так что поиск страницы останавливается,
+ * как только она набрана.
+ * <p>
+ * Индекс строится при старте и обновляется после коммита изменений вещи. В нём хранятся и недоступные вещи:
+ * доступность — такой же фасет, как владелец, и отбирается {@link ItemFacetIndex}.
+ * Используется, когда база не PostgreSQL (см. {@link ItemSearchConfig}).
+ */
+public class ItemSearchIndex implements ItemSearchStrategy {
+    private final ItemRepository itemRepository;
+    private final int warmUpBatchSize;
+
+    private final NavigableMap<String, Postings> itemsByToken = new ConcurrentSkipListMap<>();
+    private final Map<Long, Document> documentsByItem = new ConcurrentHashMap<>();
+
+    public ItemSearchIndex(ItemRepository itemRepository, int warmUpBatchSize) {
+        this.itemRepository = itemRepository;
+        this.warmUpBatchSize = warmUpBatchSize;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        Long afterId = 0L;
+        List<ItemView> batch;
+        do {
+            batch = itemRepository.findViewsAfter(afterId, PageRequest.of(0, warmUpBatchSize));
+            batch.forEach(item -> index(item.getId(), tokensOf(item)));
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == warmUpBatchSize);
+    }
+
+    /**
+     * Id вещей из {@code allowed}, в названии или описании которых есть все слова запроса,
+     * начиная с позиции {@code from}.
+     */
+    @Override
+    public List<Long> search(String text, ItemSearchFilter filter, ItemBitmap allowed, int from, int size) {
+        return matches(ItemSearchTokens.queryWords(text), allowed)
+                .skip(from)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Long> searchRanked(String text, ItemSearchFilter filter, ItemBitmap allowed, int from, int size) {
+        Set<String> queryTokens = ItemSearchTokens.queryWords(text);
+        ItemRelevance.TopK top = new ItemRelevance.TopK(from + size);
+        matches(queryTokens, allowed).forEach(itemId -> {
+            Document document = documentsByItem.get(itemId);
+            if (document != null) {
+                top.offer(itemId, ItemRelevance.score(queryTokens, document.name(), document.description()));
+            }
+        });
+        return top.page(from);
+    }
+
+    /**
+     * Индекс хранит только id, поэтому строки найденных вещей читаются по возрастанию id пачками того же размера,
+     * что и при прогреве. Совпадения перебираются по мере чтения: следующая пачка id набирается и запрашивается,
+     * только когда предыдущая прочитана, так что в памяти не больше одной пачки.
+     */
+    @Override
+    public Stream<ItemView> streamMatching(String text, ItemSearchFilter filter, ItemBitmap allowed) {
+        Iterator<Long> ids = matches(ItemSearchTokens.queryWords(text), allowed).iterator();
+        Iterator<List<Long>> chunks = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public List<Long> next() {
+                List<Long> chunk = new ArrayList<>(warmUpBatchSize);
+                while (chunk.size() < warmUpBatchSize && ids.hasNext()) {
+                    chunk.add(ids.next());
+                }
+                if (chunk.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED), false)
+                .flatMap(this::loadViews);
+    }
+
+    // IN возвращает строки в произвольном порядке, поэтому пачка сортируется по id
+    private Stream<ItemView> loadViews(List<Long> chunk) {
+        return itemRepository.findViewsByIds(chunk).stream()
+                .sorted(Comparator.comparing(ItemView::getId));
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        itemRepository.findViewById(event.itemId())
+                .ifPresentOrElse(item -> index(item.getId(), tokensOf(item)), () -> remove(event.itemId()));
+    }
+
+    public void index(Long itemId, String name, String description) {
+        index(itemId, ItemSearchTokens.of(name, description));
+    }
+
+    public synchronized void index(Long itemId, ItemSearchTokens searchTokens) {
+        Document document = new Document(ItemRelevance.frequencies(searchTokens.name()),
+                ItemRelevance.frequencies(searchTokens.description()));
+        Set<String> tokens = document.tokens();
+        Document previous = documentsByItem.put(itemId, document);
+        if (previous != null) {
+            previous.tokens().stream()
+                    .filter(token -> !tokens.contains(token))
+                    .forEach(token -> unlink(token, itemId));
+        }
+        tokens.forEach(token -> itemsByToken.computeIfAbsent(token, t -> new Postings()).add(itemId));
+    }
+
+    public synchronized void remove(Long itemId) {
+        Document document = documentsByItem.remove(itemId);
+        if (document != null) {
+            document.tokens().forEach(token -> unlink(token, itemId));
+        }
+    }
+
+    // Id вещей из allowed со всеми словами запроса, лениво и по возрастанию
+    private Stream<Long> matches(Set<String> queryTokens, ItemBitmap allowed) {
+        if (queryTokens.isEmpty()) {
+            return Stream.empty();
+        }
+        List<WordMatch> words = new ArrayList<>(queryTokens.size());
+        for (String token : queryTokens) {
+            WordMatch word = WordMatch.of(itemsWithPrefix(token));
+            if (word.size() == 0) {
+                return Stream.empty();
+            }
+            words.add(word);
+        }
+
+        words.sort(Comparator.comparingLong(WordMatch::size));
+        List<WordMatch> others = words.subList(1, words.size());
+        Spliterator<Long> candidates = Spliterators.spliteratorUnknownSize(words.get(0).iterator(),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(candidates, false)
+                .filter(allowed::contains)
+                .filter(itemId -> others.stream().allMatch(word -> word.contains(itemId)));
+    }
+
+    private void unlink(String token, Long itemId) {
+        Postings postings = itemsByToken.get(token);
+        if (postings != null && postings.remove(itemId)) {
+            itemsByToken.remove(token);
+        }
+    }
+
+    private List<Postings> itemsWithPrefix(String prefix) {
+        List<Postings> postings = new ArrayList<>();
+        for (Map.Entry<String, Postings> entry : itemsByToken.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            postings.add(entry.getValue());
+        }
+        return postings;
+    }
+
+    private static ItemSearchTokens tokensOf(ItemView item) {
+        // Строки, ещё не обработанные ItemSearchTokensBackfill, нормализуются на месте
+        return item.getSearchTokens() != null
+                ? ItemSearchTokens.decode(item.getSearchTokens())
+                : ItemSearchTokens.of(item.getName(), item.getDescription());
+    }
+
+    // Id вещей с одним словом. Размер ведётся отдельно: size() у ConcurrentSkipListSet обходит всё множество
+    private static final class Postings {
+        private final NavigableSet<Long> items = new ConcurrentSkipListSet<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        private void add(Long itemId) {
+            if (items.add(itemId)) {
+                size.incrementAndGet();
+            }
+        }
+
+        /**
+         * Убирает id и сообщает, опустело ли множество.
+         */
+        private boolean remove(Long itemId) {
+            if (items.remove(itemId)) {
+                size.decrementAndGet();
+            }
+            return items.isEmpty();
+        }
+    }
+
+    // Вещи со словами, начинающимися со слова запроса: объединение нескольких множеств без копирования.
+    // size — верхняя оценка, по ней выбирается самое маленькое слово запроса
+    private record WordMatch(List<Postings> postings, long size) {
+        static WordMatch of(List<Postings> postings) {
+            return new WordMatch(postings, postings.stream().mapToLong(items -> items.size.get()).sum());
+        }
+
+        boolean contains(Long itemId) {
+            return postings.stream().anyMatch(items -> items.items.contains(itemId));
+        }
+
+        // Слияние упорядоченных множеств: на каждом шаге берётся наименьший из текущих id, повторы пропускаются
+        Iterator<Long> iterator() {
+            if (postings.size() == 1) {
+                return postings.get(0).items.iterator();
+            }
+            PriorityQueue<Cursor> cursors = new PriorityQueue<>(Comparator.comparing(Cursor::itemId));
+            postings.forEach(items -> Cursor.advance(items.items.iterator(), cursors));
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return !cursors.isEmpty();
+                }
+
+                @Override
+                public Long next() {
+                    if (cursors.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+                    Long itemId = cursors.peek().itemId();
+                    while (!cursors.isEmpty() && cursors.peek().itemId().equals(itemId)) {
+                        Cursor.advance(cursors.poll().rest(), cursors);
+                    }
+                    return itemId;
+                }
+            };
+        }
+    }
+
+    private record Cursor(Long itemId, Iterator<Long> rest) {
+        static void advance(Iterator<Long> items, PriorityQueue<Cursor> cursors) {
+            if (items.hasNext()) {
+                cursors.add(new Cursor(items.next(), items));
+            }
+        }
+    }
+
+    private record Document(Map<String, Integer> name, Map<String, Integer> description) {
+        Set<String> tokens() {
+            Set<String> tokens = new HashSet<>(name.keySet());
+            tokens.addAll(description.keySet());
+            return tokens;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Полнотекстовый поиск вещей по названию и описанию среди вещей, отобранных фасетами {@link ItemFacetIndex}.
+ * Реализация выбирается по типу базы в {@link ItemSearchConfig}; правило совпадения у всех реализаций одно
+ * (см. {@link ItemSearchTokens}).
+ */
+public interface ItemSearchStrategy {
+    /**
+     * Id подходящих вещей из {@code allowed} в порядке возрастания, начиная с позиции {@code from}.
+     * {@code allowed} — пересечение фасетов {@code filter}; реализация может дополнительно проверить их в запросе.
+     */
+    List<Long> search(String text, ItemSearchFilter filter, ItemBitmap allowed, int from, int size);
+
+    /**
+     * Те же вещи, упорядоченные по {@link ItemRelevance}, при равной релевантности — по id.
+     */
+    List<Long> searchRanked(String text, ItemSearchFilter filter, ItemBitmap allowed, int from, int size);
+
+    /**
+     * Все подходящие вещи из {@code allowed} в порядке возрастания id. Строки читаются по мере потребления
+     * потока: курсором или пачками по id, в зависимости от реализации, поэтому поток нужно закрыть
+     * и читать внутри транзакции.
+     */
+    Stream<ItemView> streamMatching(String text, ItemSearchFilter filter, ItemBitmap allowed);
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Нормализованные слова названия и описания вещи, как они хранятся в {@code items.search_tokens}:
+ * слова через пробел, название и описание разделены {@code |}. Повторы сохраняются — по ним считается
+ * релевантность.
+ * <p>
+ * Правило поиска одно для всех реализаций: каждое слово запроса должно быть началом какого-нибудь слова
+ * названия или описания, порядок слов и их повторы в запросе не важны.
+ */
+public record ItemSearchTokens(List<String> name, List<String> description) {
+    private static final String FIELD_SEPARATOR = "|";
+
+    public ItemSearchTokens {
+        name = List.copyOf(name);
+        description = List.copyOf(description);
+    }
+
+    public static ItemSearchTokens of(String name, String description) {
+        return new ItemSearchTokens(TextNormalizer.tokens(name), TextNormalizer.tokens(description));
+    }
+
+    public static ItemSearchTokens decode(String encoded) {
+        int separator = encoded.indexOf(FIELD_SEPARATOR);
+        if (separator < 0) {
+            return new ItemSearchTokens(split(encoded), List.of());
+        }
+        return new ItemSearchTokens(split(encoded.substring(0, separator)), split(encoded.substring(separator + 1)));
+    }
+
+    public String encode() {
+        return String.join(" ", name) + FIELD_SEPARATOR + String.join(" ", description);
+    }
+
+    /**
+     * Различные нормализованные слова запроса.
+     */
+    public static Set<String> queryWords(String text) {
+        return Set.copyOf(TextNormalizer.tokens(text));
+    }
+
+    private static List<String> split(String words) {
+        return words.isEmpty() ? List.of() : Arrays.asList(words.split(" "));
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Заполняет {@code items.search_tokens} у вещей, сохранённых до появления колонки.
+ * <p>
+ * Новые и изменённые вещи получают слова в {@link Item} при сохранении, поэтому работа нужна один раз
+ * после обновления схемы; при следующих запусках запрос сразу возвращает пустую порцию.
+ * Каждая порция обновляется в своей транзакции.
+ */
+@Slf4j
+@Component
+public class ItemSearchTokensBackfill {
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ItemSearchTokensBackfill(ItemRepository itemRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${shareit.item.search.warm-up-batch-size:1000}") int batchSize) {
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        long afterId = 0;
+        int updated = 0;
+
+        List<ItemView> batch = itemRepository.findWithoutSearchTokensAfter(afterId, PageRequest.of(0, batchSize));
+        while (!batch.isEmpty()) {
+            List<ItemView> items = batch;
+            transactionTemplate.executeWithoutResult(status -> items.forEach(item ->
+                    itemRepository.updateSearchTokens(item.getId(),
+                            ItemSearchTokens.of(item.getName(), item.getDescription()).encode())));
+            updated += items.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+            batch = itemRepository.findWithoutSearchTokensAfter(afterId, PageRequest.of(0, batchSize));
+        }
+
+        if (updated > 0) {
+            log.info("Заполнены слова для поиска у {} вещей", updated);
+        }
+    }
+}
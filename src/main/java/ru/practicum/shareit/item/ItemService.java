@@ -1,7 +1,23 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.item.dto.CommentPageDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.dto.SearchCacheStatsDto;
+
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     List<ItemDto> getItemsByRequestId(Long requestId);
+
+    CommentPageDto getComments(Long itemId, String cursor, int size);
+
+    void streamSearch(String text, ItemSearchFilter filter, Consumer<ItemDto> consumer);
+
+    void streamUserItems(Long userId, Consumer<ItemWithBookingsDto> consumer);
+
+    List<String> suggestNames(String prefix, int limit);
+
+    SearchCacheStatsDto getSearchCacheStats();
 }
\ No newline at end of file
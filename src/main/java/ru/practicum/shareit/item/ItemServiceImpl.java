@@ -1,32 +1,55 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingRepository;
-import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.ItemBookingSummary;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.pagination.SeekCursor;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Чтение выполняется в транзакции только для чтения: Hibernate не делает снимков сущностей для dirty checking
+ * и не сбрасывает контекст (FlushMode.MANUAL), а списки и поиск читают проекции вместо управляемых {@link Item}.
+ * Методы, которые меняют данные, переопределяют это своим {@code @Transactional}.
+ */
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    // Сколько последних комментариев показывается в карточке вещи; остальные доступны постранично
+    private static final int COMMENTS_PREVIEW_SIZE = 10;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemBookingSummary bookingSummary;
+    private final ItemDetailsCache detailsCache;
+    private final ItemSearchStrategy searchStrategy;
+    private final ItemSearchCache searchCache;
+    private final ItemFacetIndex facetIndex;
+    private final ItemSuggestIndex suggestIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -36,6 +59,7 @@ public class ItemServiceImpl implements ItemService {
 
         Item item = ItemMapper.toModel(itemDto, owner);
         Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(savedItem.getId()));
         return ItemMapper.toDto(savedItem);
     }
 
@@ -51,46 +75,18 @@ public class ItemServiceImpl implements ItemService {
 
         ItemMapper.updateModelFromDto(item, itemDto);
         Item updatedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
         return ItemMapper.toDto(updatedItem);
     }
 
     @Override
     public ItemWithBookingsDto getItemById(Long itemId, Long userId) {
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new EntityNotFoundException("Вещь с ID " + itemId + " не найдена"));
-
-        List<CommentResponseDto> comments = commentRepository.findByItemIdOrderByCreatedDesc(itemId)
-                .stream()
-                .map(this::toCommentDto)
-                .collect(Collectors.toList());
-
-        ItemWithBookingsDto itemWithBookingsDto = ItemMapper.toItemWithBookingsDto(item);
-        itemWithBookingsDto.setComments(comments);
+        ItemDetailsCache.ItemDetails details = detailsCache.get(itemId, this::loadItemDetails);
+        ItemWithBookingsDto itemWithBookingsDto = details.toDto();
 
         // Добавляем информацию о бронированиях только для владельца
-        if (item.getOwner().getId().equals(userId)) {
-            LocalDateTime now = LocalDateTime.now();
-
-            // Последнее бронирование
-            Booking lastBooking = bookingRepository
-                    .findFirstByItemIdAndStartLessThanEqualAndStatusOrderByStartDesc(
-                            itemId, now, BookingStatus.APPROVED)
-                    .orElse(null);
-
-            // Следующее бронирование
-            Booking nextBooking = bookingRepository
-                    .findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
-                            itemId, now, BookingStatus.APPROVED)
-                    .orElse(null);
-
-            if (lastBooking != null) {
-                itemWithBookingsDto.setLastBooking(
-                        new ItemWithBookingsDto.BookingInfo(lastBooking.getId(), lastBooking.getBooker().getId()));
-            }
-            if (nextBooking != null) {
-                itemWithBookingsDto.setNextBooking(
-                        new ItemWithBookingsDto.BookingInfo(nextBooking.getId(), nextBooking.getBooker().getId()));
-            }
+        if (details.ownerId().equals(userId)) {
+            addBookings(itemWithBookingsDto, bookingSummary.get(itemId, LocalDateTime.now()));
         }
 
         return itemWithBookingsDto;
@@ -99,26 +95,144 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public List<ItemWithBookingsDto> getUserItems(Long userId, int from, int size) {
         Pageable pageable = PageRequest.of(from / size, size);
-        List<Item> items = itemRepository.findByOwnerIdOrderById(userId, pageable);
+        List<ItemView> items = itemRepository.findByOwnerIdOrderById(userId, pageable);
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Последние комментарии и их число для всей страницы двумя запросами, бронирования — из сводки в памяти
+        List<Long> itemIds = items.stream()
+                .map(ItemView::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<CommentResponseDto>> commentsByItem = commentRepository
+                .findNewestByItemIds(itemIds, COMMENTS_PREVIEW_SIZE)
+                .stream()
+                .collect(Collectors.groupingBy(CommentView::getItemId, Collectors.mapping(
+                        comment -> new CommentResponseDto(comment.getId(), comment.getText(),
+                                comment.getAuthorName(), comment.getCreated()),
+                        Collectors.toList())));
+        List<Long> fullPreviews = commentsByItem.entrySet().stream()
+                .filter(entry -> entry.getValue().size() == COMMENTS_PREVIEW_SIZE)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        Map<Long, Long> countsByItem = fullPreviews.isEmpty()
+                ? Map.of()
+                : commentRepository.countByItemIds(fullPreviews).stream()
+                        .collect(Collectors.toMap(CommentCountView::getItemId, CommentCountView::getCount));
 
+        LocalDateTime now = LocalDateTime.now();
         return items.stream()
-                .map(item -> getItemById(item.getId(), userId))
+                .map(item -> {
+                    List<CommentResponseDto> comments = commentsByItem.getOrDefault(item.getId(), List.of());
+                    ItemWithBookingsDto itemWithBookingsDto = ItemMapper.toItemWithBookingsDto(item);
+                    itemWithBookingsDto.setComments(comments);
+                    itemWithBookingsDto.setCommentsCount(
+                            countsByItem.getOrDefault(item.getId(), (long) comments.size()));
+                    addBookings(itemWithBookingsDto, bookingSummary.get(item.getId(), now));
+                    return itemWithBookingsDto;
+                })
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<ItemDto> searchItems(String text, int from, int size) {
+    public CommentPageDto getComments(Long itemId, String cursor, int size) {
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть больше нуля");
+        }
+        SeekCursor after = SeekCursor.decode(cursor);
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+        Pageable pageable = PageRequest.of(0, size + 1);
+        List<CommentResponseDto> comments = after == null
+                ? commentRepository.findNewestByItemId(itemId, pageable)
+                : commentRepository.findByItemIdAfter(itemId, after.timestamp(), after.id(), pageable);
+        if (comments.isEmpty() && !itemRepository.existsById(itemId)) {
+            throw new EntityNotFoundException("Вещь с ID " + itemId + " не найдена");
+        }
+
+        String nextCursor = null;
+        if (comments.size() > size) {
+            comments = comments.subList(0, size);
+            CommentResponseDto last = comments.get(comments.size() - 1);
+            nextCursor = new SeekCursor(last.getCreated(), last.getId()).encode();
+        }
+        return new CommentPageDto(comments, nextCursor);
+    }
+
+    @Override
+    public List<ItemDto> searchItems(String text, ItemSearchSort sort, ItemSearchFilter filter, int from, int size) {
         if (text == null || text.isBlank()) {
             return Collections.emptyList();
         }
 
-        Pageable pageable = PageRequest.of(from / size, size);
-        return itemRepository.searchAvailableItems(text, pageable)
-                .stream()
+        String query = ItemSearchCache.normalize(text);
+        List<Long> ids = searchCache.get(query, sort, filter, from, size, () -> {
+            ItemBitmap allowed = facetIndex.filter(filter);
+            if (allowed.isEmpty()) {
+                return List.of();
+            }
+            return sort == ItemSearchSort.RELEVANCE
+                    ? searchStrategy.searchRanked(query, filter, allowed, from, size)
+                    : searchStrategy.search(query, filter, allowed, from, size);
+        });
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Поиск отдаёт id по порядку, а IN возвращает строки в произвольном
+        Map<Long, ItemView> itemsById = itemRepository.findViewsByIds(ids).stream()
+                .collect(Collectors.toMap(ItemView::getId, Function.identity()));
+        return ids.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
                 .map(ItemMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Вещи передаются потребителю по одной, пока курсор читается, — список результатов не собирается.
+     * Выгрузка идёт по возрастанию id и без страниц.
+     */
+    @Override
+    public void streamSearch(String text, ItemSearchFilter filter, Consumer<ItemDto> consumer) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+
+        ItemBitmap allowed = facetIndex.filter(filter);
+        if (allowed.isEmpty()) {
+            return;
+        }
+        try (Stream<ItemView> items = searchStrategy.streamMatching(ItemSearchCache.normalize(text), filter, allowed)) {
+            items.map(ItemMapper::toDto).forEach(consumer);
+        }
+    }
+
+    /**
+     * Бронирования берутся из сводки в памяти, а комментарии в выгрузку не входят:
+     * они потребовали бы запроса на каждую вещь.
+     */
+    @Override
+    public void streamUserItems(Long userId, Consumer<ItemWithBookingsDto> consumer) {
+        LocalDateTime now = LocalDateTime.now();
+        try (Stream<ItemView> items = itemRepository.streamByOwnerId(userId)) {
+            items.map(item -> {
+                ItemWithBookingsDto itemWithBookingsDto = ItemMapper.toItemWithBookingsDto(item);
+                addBookings(itemWithBookingsDto, bookingSummary.get(item.getId(), now));
+                return itemWithBookingsDto;
+            }).forEach(consumer);
+        }
+    }
+
+    @Override
+    public List<String> suggestNames(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit);
+    }
+
+    @Override
+    public SearchCacheStatsDto getSearchCacheStats() {
+        return searchCache.getStats();
+    }
+
     @Override
     @Transactional
     public CommentResponseDto addComment(Long itemId, CommentRequestDto commentDto, Long userId) {
@@ -129,10 +243,7 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new EntityNotFoundException("Пользователь с ID " + userId + " не найден"));
 
         // Проверяем, что пользователь действительно брал вещь в аренду
-        List<Booking> userBookings = bookingRepository.findCompletedBookingsByUserAndItem(
-                userId, itemId, BookingStatus.APPROVED, LocalDateTime.now());
-
-        if (userBookings.isEmpty()) {
+        if (!bookingRepository.hasCompletedBooking(userId, itemId, LocalDateTime.now())) {
             throw new ValidationException("Пользователь не брал эту вещь в аренду или аренда еще не завершена");
         }
 
@@ -143,9 +254,36 @@ public class ItemServiceImpl implements ItemService {
         comment.setCreated(LocalDateTime.now());
 
         Comment savedComment = commentRepository.save(comment);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
         return toCommentDto(savedComment);
     }
 
+    private ItemDetailsCache.ItemDetails loadItemDetails(Long itemId) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new EntityNotFoundException("Вещь с ID " + itemId + " не найдена"));
+
+        List<CommentResponseDto> comments = commentRepository.findNewestByItemId(
+                itemId, PageRequest.of(0, COMMENTS_PREVIEW_SIZE));
+        // Неполная страница уже и есть все комментарии, считать их отдельно не нужно
+        long commentsCount = comments.size() < COMMENTS_PREVIEW_SIZE
+                ? comments.size()
+                : commentRepository.countByItemId(itemId);
+
+        return new ItemDetailsCache.ItemDetails(item.getId(), item.getOwner().getId(), item.getName(),
+                item.getDescription(), item.getAvailable(), comments, commentsCount);
+    }
+
+    private void addBookings(ItemWithBookingsDto itemWithBookingsDto, ItemBookingSummary.Summary summary) {
+        if (summary.last() != null) {
+            itemWithBookingsDto.setLastBooking(new ItemWithBookingsDto.BookingInfo(
+                    summary.last().bookingId(), summary.last().bookerId()));
+        }
+        if (summary.next() != null) {
+            itemWithBookingsDto.setNextBooking(new ItemWithBookingsDto.BookingInfo(
+                    summary.next().bookingId(), summary.next().bookerId()));
+        }
+    }
+
     private CommentResponseDto toCommentDto(Comment comment) {
         return new CommentResponseDto(
                 comment.getId(),
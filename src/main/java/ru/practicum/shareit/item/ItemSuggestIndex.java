@@ -0,0 +1,158 @@
+package ru.practicum.shareit.item;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Подсказки названий доступных вещей по началу названия.
+ * <p>
+ * Читатели работают с неизменяемым снимком — отсортированным массивом названий, приведённых
+ * {@link TextNormalizer#fold} к нижнему регистру и «е» вместо «ё»,
+ * поэтому подсказка — это двоичный поиск первого подходящего названия и чтение следующих по порядку,
+ * без блокировок. Изменение вещи создаёт новый снимок, вставляя или удаляя одно название копированием массива;
+ * одинаковые названия разных вещей хранятся один раз, а счётчик показывает, сколько вещей его используют.
+ */
+@Component
+public class ItemSuggestIndex {
+    private final ItemRepository itemRepository;
+    private final int warmUpBatchSize;
+
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new String[0]);
+
+    private final Map<Long, String> nameByItem = new HashMap<>();
+    private final Map<String, Integer> itemsByKey = new HashMap<>();
+
+    public ItemSuggestIndex(ItemRepository itemRepository,
+                            @Value("${shareit.item.search.warm-up-batch-size:1000}") int warmUpBatchSize) {
+        this.itemRepository = itemRepository;
+        this.warmUpBatchSize = warmUpBatchSize;
+    }
+
+    @PostConstruct
+    public synchronized void warmUp() {
+        // Название, под которым ключ показывается в подсказках, — у вещи с наименьшим id
+        TreeMap<String, String> names = new TreeMap<>();
+        Long afterId = 0L;
+        List<ItemView> batch;
+        do {
+            batch = itemRepository.findAvailableAfter(afterId, PageRequest.of(0, warmUpBatchSize));
+            for (ItemView item : batch) {
+                nameByItem.put(item.getId(), item.getName());
+                String key = TextNormalizer.fold(item.getName());
+                itemsByKey.merge(key, 1, Integer::sum);
+                names.putIfAbsent(key, item.getName());
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == warmUpBatchSize);
+
+        snapshot = new Snapshot(names.keySet().toArray(new String[0]), names.values().toArray(new String[0]));
+    }
+
+    /**
+     * Не больше {@code limit} названий, начинающихся с {@code prefix} без учёта регистра и различия «е»/«ё»,
+     * в алфавитном порядке.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        String key = TextNormalizer.fold(prefix.trim());
+        Snapshot current = snapshot;
+        List<String> suggestions = new ArrayList<>(Math.min(limit, current.keys().length));
+        for (int i = current.lowerBound(key); i < current.keys().length && suggestions.size() < limit; i++) {
+            if (!current.keys()[i].startsWith(key)) {
+                break;
+            }
+            suggestions.add(current.names()[i]);
+        }
+        return suggestions;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        itemRepository.findViewById(event.itemId())
+                .filter(item -> Boolean.TRUE.equals(item.getAvailable()))
+                .ifPresentOrElse(item -> put(item.getId(), item.getName()), () -> remove(event.itemId()));
+    }
+
+    public synchronized void put(Long itemId, String name) {
+        String previous = nameByItem.put(itemId, name);
+        if (name.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            release(TextNormalizer.fold(previous));
+        }
+
+        String key = TextNormalizer.fold(name);
+        if (itemsByKey.merge(key, 1, Integer::sum) == 1) {
+            snapshot = snapshot.with(key, name);
+        }
+    }
+
+    public synchronized void remove(Long itemId) {
+        String name = nameByItem.remove(itemId);
+        if (name != null) {
+            release(TextNormalizer.fold(name));
+        }
+    }
+
+    private void release(String key) {
+        if (itemsByKey.merge(key, -1, Integer::sum) == 0) {
+            itemsByKey.remove(key);
+            snapshot = snapshot.without(key);
+        }
+    }
+
+    private record Snapshot(String[] keys, String[] names) {
+        int lowerBound(String key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        Snapshot with(String key, String name) {
+            int index = lowerBound(key);
+            return new Snapshot(insert(keys, index, key), insert(names, index, name));
+        }
+
+        Snapshot without(String key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return this;
+            }
+            return new Snapshot(delete(keys, index), delete(names, index));
+        }
+
+        private static String[] insert(String[] source, int index, String value) {
+            String[] target = new String[source.length + 1];
+            System.arraycopy(source, 0, target, 0, index);
+            target[index] = value;
+            System.arraycopy(source, index, target, index + 1, source.length - index);
+            return target;
+        }
+
+        private static String[] delete(String[] source, int index) {
+            String[] target = new String[source.length - 1];
+            System.arraycopy(source, 0, target, 0, index);
+            System.arraycopy(source, index + 1, target, index, source.length - index - 1);
+            return target;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package ru.practicum.shareit.item;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Поиск средствами PostgreSQL по {@code items.search_tokens}: каждое слово запроса должно начинать слово
+ * названия или описания (правило общее с {@link ItemSearchIndex}, см. {@link ItemSearchTokens}). На каждое
+ * слово в запрос добавляется {@code LIKE '%слово%'}, который выполняется по триграммному GIN-индексу pg_trgm,
+ * а не полным просмотром таблицы, и проверка, что совпадение стоит в начале слова.
+ * <p>
+ * Доступность проверяется в SQL, остальные фасеты — по пересечению {@link ItemFacetIndex}. Маленькое
+ * пересечение само задаёт запрос: совпадения ищутся только среди его id, пачками через {@code id IN (...)}.
+ * <p>
+ * Индексы создаются при старте, а не в schema.sql, потому что схема общая с H2, где pg_trgm нет.
+ * Если расширение создать нельзя (нет прав), поиск продолжает работать, но уже без индекса.
+ */
+@Slf4j
+public class PostgresItemSearch implements ItemSearchStrategy {
+    private static final List<String> TRIGRAM_INDEXES_DDL = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_items_search_tokens_trgm ON items USING gin (search_tokens gin_trgm_ops)");
+
+    // До такого размера пересечения фасетов выгоднее искать среди его id, чем перебирать совпадения по тексту
+    private static final int ID_DRIVEN_LIMIT = 5_000;
+    private static final int ID_CHUNK_SIZE = 1_000;
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate queries;
+    private final int idDrivenLimit;
+
+    public PostgresItemSearch(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, ID_DRIVEN_LIMIT);
+    }
+
+    PostgresItemSearch(JdbcTemplate jdbcTemplate, int idDrivenLimit) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Потоки совпадений читаются курсором пачками, а не целиком в память драйвера
+        JdbcTemplate fetching = new JdbcTemplate(Objects.requireNonNull(jdbcTemplate.getDataSource()));
+        fetching.setFetchSize(SCAN_BATCH_SIZE);
+        this.queries = new NamedParameterJdbcTemplate(fetching);
+        this.idDrivenLimit = idDrivenLimit;
+    }
+
+    @PostConstruct
+    public void createTrigramIndexes() {
+        try {
+            TRIGRAM_INDEXES_DDL.forEach(jdbcTemplate::execute);
+        } catch (DataAccessException e) {
+            log.warn("Не удалось создать триграммные индексы для поиска вещей: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Маленькое пересечение фасетов ищется по своим id. Если задана только доступность, страница отбирается
+     * в SQL через LIMIT/OFFSET, иначе совпадения читаются пачками, пока страница не набрана.
+     */
+    @Override
+    public List<Long> search(String text, ItemSearchFilter filter, ItemBitmap allowed, int from, int size) {
+        Set<String> words = ItemSearchTokens.queryWords(text);
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String condition = matchCondition(words.size());
+        MapSqlParameterSource parameters = matchParameters(words, filter.available());
+        if (allowed.cardinality() <= idDrivenLimit) {
+            return searchAmong(condition, parameters, allowed, from, size);
+        }
+        if (filter.availabilityOnly()) {
+            return queries.queryForList("SELECT id FROM items WHERE " + condition +
+                            " ORDER BY id LIMIT :size OFFSET :from",
+                    parameters.addValue("size", size).addValue("from", from), Long.class);
+        }
+        return searchScanning(condition, parameters, allowed, from, size);
+    }
+
+    // Id пересечения идут по возрастанию, поэтому пачки можно прекратить, как только набрана страница
+    private List<Long> searchAmong(String condition, MapSqlParameterSource parameters, ItemBitmap allowed,
+                                   int from, int size) {
+        String sql = "SELECT id FROM items WHERE id IN (:ids) AND " + condition + " ORDER BY id";
+        long[] ids = allowed.toArray();
+        List<Long> matched = new ArrayList<>();
+        for (int start = 0; start < ids.length && matched.size() < from + size; start += ID_CHUNK_SIZE) {
+            List<Long> chunk = Arrays.stream(ids, start, Math.min(ids.length, start + ID_CHUNK_SIZE))
+                    .boxed()
+                    .collect(Collectors.toList());
+            matched.addAll(queries.queryForList(sql, parameters.addValue("ids", chunk), Long.class));
+        }
+        if (matched.size() <= from) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(matched.subList(from, Math.min(matched.size(), from + size)));
+    }
+
+    // Большое пересечение с другими фасетами: совпадения читаются пачками по id, пока не набрана страница
+    private List<Long> searchScanning(String condition, MapSqlParameterSource parameters, ItemBitmap allowed,
+                                      int from, int size) {
+        String sql = "SELECT id FROM items WHERE id > :afterId AND " + condition + " ORDER BY id LIMIT :size";
+        parameters.addValue("size", SCAN_BATCH_SIZE);
+        List<Long> page = new ArrayList<>(size);
+        int skipped = 0;
+        long afterId = 0;
+        List<Long> batch;
+        do {
+            batch = queries.queryForList(sql, parameters.addValue("afterId", afterId), Long.class);
+            for (Long id : batch) {
+                if (!allowed.contains(id)) {
+                    continue;
+                }
+                if (skipped < from) {
+                    skipped++;
+                } else {
+                    page.add(id);
+                    if (page.size() == size) {
+                        return page;
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == SCAN_BATCH_SIZE);
+        return page;
+    }
+
+    /**
+     * Кандидаты читаются из курсора по одному и сразу оцениваются: в памяти остаётся только куча лучших.
+     */
+    @Override
+    public List<Long> searchRanked(String text, ItemSearchFilter filter, ItemBitmap allowed, int from, int size) {
+        Set<String> words = ItemSearchTokens.queryWords(text);
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        ItemRelevance.TopK top = new ItemRelevance.TopK(from + size);
+        try (Stream<Candidate> candidates = queries.queryForStream(
+                "SELECT id, search_tokens FROM items WHERE " + matchCondition(words.size()),
+                matchParameters(words, filter.available()),
+                (row, rowNum) -> new Candidate(row.getLong("id"), row.getString("search_tokens")))) {
+            candidates.filter(candidate -> allowed.contains(candidate.id())).forEach(candidate -> {
+                ItemSearchTokens tokens = ItemSearchTokens.decode(candidate.searchTokens());
+                top.offer(candidate.id(), ItemRelevance.score(words,
+                        ItemRelevance.frequencies(tokens.name()), ItemRelevance.frequencies(tokens.description())));
+            });
+        }
+        return top.page(from);
+    }
+
+    @Override
+    public Stream<ItemView> streamMatching(String text, ItemSearchFilter filter, ItemBitmap allowed) {
+        Set<String> words = ItemSearchTokens.queryWords(text);
+        if (words.isEmpty()) {
+            return Stream.empty();
+        }
+        return queries.queryForStream("SELECT id, name, description, available, request_id AS requestId " +
+                                "FROM items WHERE " + matchCondition(words.size()) + " ORDER BY id",
+                        matchParameters(words, filter.available()), new ColumnMapRowMapper())
+                .map(row -> PROJECTIONS.createProjection(ItemView.class, row))
+                .filter(item -> allowed.contains(item.getId()));
+    }
+
+    // Слово запроса должно начинать слово вещи. В search_tokens слова разделены пробелом, а поля — «|», так что
+    // с пробелом в начале и «|», заменённой на пробел, это подстрока « слово». LIKE '%слово%' по самому столбцу
+    // отбирает те же строки грубее, зато его выполняет триграммный индекс
+    private static String matchCondition(int words) {
+        StringBuilder condition = new StringBuilder("available = :available");
+        for (int i = 0; i < words; i++) {
+            condition.append(" AND search_tokens LIKE :contains").append(i)
+                    .append(" AND (' ' || REPLACE(search_tokens, '|', ' ')) LIKE :starts").append(i);
+        }
+        return condition.toString();
+    }
+
+    // Слова состоят только из букв и цифр (TextNormalizer), экранировать в шаблонах нечего
+    private static MapSqlParameterSource matchParameters(Set<String> words, boolean available) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("available", available);
+        int i = 0;
+        for (String word : words) {
+            parameters.addValue("contains" + i, "%" + word + "%");
+            parameters.addValue("starts" + i, "% " + word + "%");
+            i++;
+        }
+        return parameters;
+    }
+
+    private record Candidate(long id, String searchTokens) {
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Нормализация текста для поиска: нижний регистр, «ё» → «е» и отсечение окончаний у русских и английских слов.
+ * <p>
+ * Стеммер намеренно простой: у слова отрезается самое длинное подходящее окончание из списка, если после этого
+ * остаётся не меньше {@link #MIN_STEM_LENGTH} букв. Этого хватает, чтобы «дрели», «дрелью» и «дрель»
+ * или «drills» и «drilling» сводились к одной основе. Результат не идемпотентен, поэтому нормализуется
+ * только исходный текст.
+ */
+public final class TextNormalizer {
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern CYRILLIC = Pattern.compile("\\p{IsCyrillic}");
+
+    // Окончания упорядочены по убыванию длины: отрезается самое длинное подходящее
+    private static final List<String> RUSSIAN_ENDINGS = List.of(
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "ией", "ать", "ять", "ить",
+            "ая", "яя", "ое", "ее", "ые", "ие", "ый", "ий", "ой", "ей", "ую", "юю", "ом", "ем", "ам", "ям",
+            "ах", "ях", "ов", "ев", "ью", "ия", "ию",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й");
+    private static final List<String> ENGLISH_ENDINGS = List.of(
+            "ing", "ies", "ed", "es", "ly", "s");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Текст в нижнем регистре с «ё», заменённой на «е», — без отсечения окончаний.
+     */
+    public static String fold(String text) {
+        return text.toLowerCase().replace('ё', 'е');
+    }
+
+    /**
+     * Основы слов текста в порядке следования, с повторами.
+     */
+    public static List<String> tokens(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATOR.split(fold(text)))
+                .filter(word -> !word.isEmpty())
+                .map(TextNormalizer::stem)
+                .collect(Collectors.toList());
+    }
+
+    static String stem(String word) {
+        List<String> endings = CYRILLIC.matcher(word).find() ? RUSSIAN_ENDINGS : ENGLISH_ENDINGS;
+        for (String ending : endings) {
+            if (word.endsWith(ending) && word.length() - ending.length() >= MIN_STEM_LENGTH) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+}
@@ -17,6 +17,8 @@ public class ItemWithBookingsDto {
     private BookingInfo lastBooking;
     private BookingInfo nextBooking;
     private List<CommentResponseDto> comments;
+    // Общее число комментариев: в comments попадают только самые новые
+    private Long commentsCount;
 
     @Data
     @NoArgsConstructor
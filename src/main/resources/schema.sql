@@ -17,18 +17,67 @@ CREATE TABLE IF NOT EXISTS items (
   CONSTRAINT fk_item_owner FOREIGN KEY (owner_id) REFERENCES users(id)
 );
 
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_tokens VARCHAR(2000);
+
 CREATE TABLE IF NOT EXISTS bookings (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
   end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
   item_id BIGINT NOT NULL,
   booker_id BIGINT NOT NULL,
+  item_owner_id BIGINT NOT NULL,
   status VARCHAR(20) NOT NULL,
+  phase VARCHAR(20) NOT NULL,
+  version BIGINT DEFAULT 0 NOT NULL,
   CONSTRAINT pk_booking PRIMARY KEY (id),
   CONSTRAINT fk_booking_item FOREIGN KEY (item_id) REFERENCES items(id),
   CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users(id)
 );
 
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(20);
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS item_owner_id BIGINT;
+
+UPDATE bookings SET phase = CASE
+    WHEN end_date <= CURRENT_TIMESTAMP THEN 'PAST'
+    WHEN start_date <= CURRENT_TIMESTAMP THEN 'CURRENT'
+    ELSE 'FUTURE'
+  END
+WHERE phase IS NULL;
+
+ALTER TABLE bookings ALTER COLUMN phase SET NOT NULL;
+
+UPDATE bookings SET item_owner_id = (SELECT i.owner_id FROM items i WHERE i.id = bookings.item_id)
+WHERE item_owner_id IS NULL;
+
+ALTER TABLE bookings ALTER COLUMN item_owner_id SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_phase_start ON bookings (booker_id, phase, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_start ON bookings (item_owner_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_phase_start ON bookings (item_owner_id, phase, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_start ON bookings (status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_end ON bookings (phase, end_date, id);
+
+CREATE TABLE IF NOT EXISTS bookings_archive (
+  id BIGINT NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  item_owner_id BIGINT NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  phase VARCHAR(20) NOT NULL,
+  archived_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL,
+  CONSTRAINT pk_booking_archive PRIMARY KEY (id),
+  CONSTRAINT fk_booking_archive_item FOREIGN KEY (item_id) REFERENCES items(id),
+  CONSTRAINT fk_booking_archive_booker FOREIGN KEY (booker_id) REFERENCES users(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_owner_start ON bookings_archive (item_owner_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_booker ON bookings_archive (item_id, booker_id);
+
 CREATE TABLE IF NOT EXISTS comments (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   text VARCHAR(1000) NOT NULL,
@@ -38,4 +87,6 @@ CREATE TABLE IF NOT EXISTS comments (
   CONSTRAINT pk_comment PRIMARY KEY (id),
   CONSTRAINT fk_comment_item FOREIGN KEY (item_id) REFERENCES items(id),
   CONSTRAINT fk_comment_author FOREIGN KEY (author_id) REFERENCES users(id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created DESC, id DESC);
\ No newline at end of file
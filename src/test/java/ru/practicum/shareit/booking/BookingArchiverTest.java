@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingArchiverTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private BookingArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new BookingArchiver(bookingRepository, transactionTemplate, 365, 2);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void archive_ShouldMoveBookingsInBatchesByAscendingId() {
+        when(bookingRepository.findArchivableIds(any(LocalDateTime.class), eq(0L), eq(2)))
+                .thenReturn(List.of(1L, 2L));
+        when(bookingRepository.findArchivableIds(any(LocalDateTime.class), eq(2L), eq(2)))
+                .thenReturn(List.of(5L));
+        when(bookingRepository.archive(anyCollection())).thenReturn(2, 1);
+
+        archiver.archive();
+
+        verify(bookingRepository).archive(List.of(1L, 2L));
+        verify(bookingRepository).archive(List.of(5L));
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void archive_WhenBatchFails_ShouldStop() {
+        when(bookingRepository.findArchivableIds(any(LocalDateTime.class), eq(0L), eq(2)))
+                .thenReturn(List.of(1L, 2L));
+        when(bookingRepository.archive(anyCollection())).thenThrow(new IllegalStateException("boom"));
+
+        archiver.archive();
+
+        verify(bookingRepository, times(1)).findArchivableIds(any(LocalDateTime.class), anyLong(), anyInt());
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 
@@ -155,6 +156,18 @@ class BookingControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getUserBookingCounts_ShouldReturnCounts() throws Exception {
+        when(bookingService.getUserBookingCounts(2L)).thenReturn(new BookingCountsDto(1, 2, 3));
+
+        mockMvc.perform(get("/bookings/counts")
+                        .header("X-Sharer-User-Id", 2L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.waiting", is(1)))
+                .andExpect(jsonPath("$.current", is(2)))
+                .andExpect(jsonPath("$.future", is(3)));
+    }
+
     @Test
     void getUserBookings_ShouldReturnBookings() throws Exception {
         when(bookingService.getUserBookings(eq(BookingState.ALL), eq(2L), anyInt(), anyInt()))
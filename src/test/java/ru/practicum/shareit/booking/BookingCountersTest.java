@@ -0,0 +1,70 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingCountersTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new BookingCounters(bookingRepository);
+    }
+
+    @Test
+    void warmUp_ShouldCountWaitingByStatusAndOthersByPhase() {
+        BookingCountView waitingFuture = group(BookingStatus.WAITING, BookingPhase.FUTURE, 2);
+        BookingCountView approvedCurrent = group(BookingStatus.APPROVED, BookingPhase.CURRENT, 3);
+        BookingCountView waitingPast = group(BookingStatus.WAITING, BookingPhase.PAST, 1);
+        when(bookingRepository.countUnfinishedByParticipants())
+                .thenReturn(List.of(waitingFuture, approvedCurrent, waitingPast));
+
+        counters.warmUp();
+
+        assertThat(counters.get(BookingRole.BOOKER, 2L)).isEqualTo(new BookingCountsDto(3, 3, 2));
+        assertThat(counters.get(BookingRole.OWNER, 1L)).isEqualTo(new BookingCountsDto(3, 3, 2));
+    }
+
+    @Test
+    void lifecycle_ShouldMoveBookingBetweenCounters() {
+        counters.created(2L, 1L, BookingPhase.FUTURE);
+        assertThat(counters.get(BookingRole.BOOKER, 2L)).isEqualTo(new BookingCountsDto(1, 0, 1));
+
+        counters.decided(2L, 1L);
+        counters.phaseChanged(2L, 1L, BookingPhase.FUTURE, BookingPhase.CURRENT);
+        assertThat(counters.get(BookingRole.OWNER, 1L)).isEqualTo(new BookingCountsDto(0, 1, 0));
+
+        counters.phaseChanged(2L, 1L, BookingPhase.CURRENT, BookingPhase.PAST);
+        assertThat(counters.get(BookingRole.BOOKER, 2L)).isEqualTo(new BookingCountsDto(0, 0, 0));
+    }
+
+    @Test
+    void get_WhenUserUnknown_ShouldReturnZeros() {
+        assertThat(counters.get(BookingRole.OWNER, 42L)).isEqualTo(new BookingCountsDto(0, 0, 0));
+    }
+
+    private BookingCountView group(BookingStatus status, BookingPhase phase, long count) {
+        BookingCountView group = mock(BookingCountView.class);
+        when(group.getBookerId()).thenReturn(2L);
+        when(group.getOwnerId()).thenReturn(1L);
+        when(group.getStatus()).thenReturn(status);
+        when(group.getPhase()).thenReturn(phase);
+        when(group.getCount()).thenReturn(count);
+        return group;
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExpiryJobTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingIntervalIndex intervalIndex;
+
+    @Mock
+    private BookingCounters counters;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private BookingExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new BookingExpiryJob(bookingRepository, intervalIndex, counters, transactionTemplate, 2);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void expire_ShouldCancelOverdueBookingsInChunks() {
+        when(bookingRepository.findOverdueWaitingIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(bookingRepository.cancelOverdue(anyCollection(), any(LocalDateTime.class))).thenReturn(2, 1);
+        when(bookingRepository.findOwnershipByIds(anyCollection())).thenReturn(
+                List.of(canceled(1L), canceled(2L)), List.of(canceled(3L)));
+
+        job.expire();
+
+        verify(bookingRepository).cancelOverdue(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(bookingRepository).cancelOverdue(eq(List.of(3L)), any(LocalDateTime.class));
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(intervalIndex).remove(1L);
+        verify(intervalIndex).remove(2L);
+        verify(intervalIndex).remove(3L);
+        verify(counters, times(3)).decided(2L, 1L);
+    }
+
+    @Test
+    void expire_WhenBookingDecidedConcurrently_ShouldKeepItsInterval() {
+        when(bookingRepository.findOverdueWaitingIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L));
+        when(bookingRepository.cancelOverdue(anyCollection(), any(LocalDateTime.class))).thenReturn(0);
+        BookingOwnershipView approved = mock(BookingOwnershipView.class);
+        when(approved.getStatus()).thenReturn(BookingStatus.APPROVED);
+        when(bookingRepository.findOwnershipByIds(List.of(1L))).thenReturn(List.of(approved));
+
+        job.expire();
+
+        verify(intervalIndex, never()).remove(anyLong());
+        verifyNoInteractions(counters);
+    }
+
+    @Test
+    void expire_WhenNothingOverdue_ShouldNotOpenTransaction() {
+        when(bookingRepository.findOverdueWaitingIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        job.expire();
+
+        verifyNoInteractions(transactionTemplate, intervalIndex);
+    }
+
+    private BookingOwnershipView canceled(Long id) {
+        BookingOwnershipView booking = mock(BookingOwnershipView.class);
+        when(booking.getId()).thenReturn(id);
+        when(booking.getBookerId()).thenReturn(2L);
+        when(booking.getOwnerId()).thenReturn(1L);
+        when(booking.getStatus()).thenReturn(BookingStatus.CANCELED);
+        return booking;
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex index;
+
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository);
+        base = LocalDateTime.now().plusDays(1).withNano(0);
+
+        index.add(1L, 10L, base, base.plusDays(2));
+        index.add(1L, 11L, base.plusDays(5), base.plusDays(6));
+    }
+
+    @Test
+    void hasConflict_WhenPeriodOverlaps_ShouldReturnTrue() {
+        assertThat(index.hasConflict(1L, base.plusDays(1), base.plusDays(3))).isTrue();
+        assertThat(index.hasConflict(1L, base.minusDays(1), base.plusHours(1))).isTrue();
+        assertThat(index.hasConflict(1L, base.plusDays(4), base.plusDays(7))).isTrue();
+    }
+
+    @Test
+    void hasConflict_WhenPeriodTouchesBorders_ShouldReturnFalse() {
+        assertThat(index.hasConflict(1L, base.plusDays(2), base.plusDays(5))).isFalse();
+        assertThat(index.hasConflict(1L, base.minusDays(1), base)).isFalse();
+        assertThat(index.hasConflict(1L, base.plusDays(6), base.plusDays(8))).isFalse();
+    }
+
+    @Test
+    void hasConflict_WhenOtherItem_ShouldReturnFalse() {
+        assertThat(index.hasConflict(2L, base, base.plusDays(2))).isFalse();
+    }
+
+    @Test
+    void hasConflict_WhenLegacySlotsOverlap_ShouldSeeLongSlotHiddenBehindShortOne() {
+        index.add(2L, 20L, base, base.plusDays(10));
+        index.add(2L, 21L, base.plusDays(1), base.plusDays(2));
+
+        assertThat(index.hasConflict(2L, base.plusDays(5), base.plusDays(6))).isTrue();
+        assertThat(index.hasConflict(2L, base.plusDays(10), base.plusDays(11))).isFalse();
+        assertThat(index.freePeriods(2L, base.plusDays(5), base.plusDays(12)))
+                .containsExactly(new BookingIntervalIndex.Period(base.plusDays(10), base.plusDays(12)));
+    }
+
+    @Test
+    void remove_ShouldFreePeriod() {
+        index.remove(10L);
+
+        assertThat(index.hasConflict(1L, base, base.plusDays(2))).isFalse();
+        assertThat(index.hasConflict(1L, base.plusDays(5), base.plusDays(6))).isTrue();
+    }
+
+    @Test
+    void freePeriods_ShouldReturnGapsBetweenBookings() {
+        List<BookingIntervalIndex.Period> free = index.freePeriods(1L, base.minusDays(1), base.plusDays(10));
+
+        assertThat(free).containsExactly(
+                new BookingIntervalIndex.Period(base.minusDays(1), base),
+                new BookingIntervalIndex.Period(base.plusDays(2), base.plusDays(5)),
+                new BookingIntervalIndex.Period(base.plusDays(6), base.plusDays(10)));
+    }
+
+    @Test
+    void freePeriods_WhenRangeInsideBooking_ShouldReturnEmptyList() {
+        assertThat(index.freePeriods(1L, base.plusHours(1), base.plusDays(1))).isEmpty();
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPhaseSweeperTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingIntervalIndex intervalIndex;
+
+    @Mock
+    private BookingCounters counters;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private BookingPhaseSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new BookingPhaseSweeper(bookingRepository, intervalIndex, counters, transactionTemplate, 2);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void sweep_ShouldAdvanceOnlyDueTransitionsInBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        sweeper.schedule(1L, now.minusHours(3), now.minusHours(2), BookingPhase.FUTURE);
+        sweeper.schedule(2L, now.minusHours(1), now.plusDays(1), BookingPhase.FUTURE);
+        sweeper.schedule(3L, now.plusDays(1), now.plusDays(2), BookingPhase.FUTURE);
+
+        sweeper.sweep();
+
+        verify(bookingRepository).advancePhase(List.of(1L), List.of(BookingPhase.FUTURE), BookingPhase.CURRENT);
+        verify(bookingRepository).advancePhase(
+                List.of(1L), List.of(BookingPhase.FUTURE, BookingPhase.CURRENT), BookingPhase.PAST);
+        verify(bookingRepository).advancePhase(List.of(2L), List.of(BookingPhase.FUTURE), BookingPhase.CURRENT);
+        verify(bookingRepository, never()).advancePhase(eq(List.of(3L)), anyCollection(), any());
+        verify(intervalIndex).remove(1L);
+        verify(intervalIndex, never()).remove(2L);
+    }
+
+    @Test
+    void sweep_ShouldMoveCountersFromPhaseBeforeUpdate() {
+        LocalDateTime now = LocalDateTime.now();
+        sweeper.schedule(1L, now.minusHours(3), now.minusHours(2), BookingPhase.FUTURE);
+        sweeper.schedule(2L, now.minusHours(1), now.plusDays(1), BookingPhase.FUTURE);
+
+        // Второе бронирование уже в CURRENT, его счётчики трогать нельзя
+        BookingOwnershipView finished = mock(BookingOwnershipView.class);
+        when(finished.getId()).thenReturn(1L);
+        when(finished.getBookerId()).thenReturn(2L);
+        when(finished.getOwnerId()).thenReturn(1L);
+        when(finished.getPhase()).thenReturn(BookingPhase.FUTURE);
+        BookingOwnershipView started = mock(BookingOwnershipView.class);
+        when(started.getId()).thenReturn(2L);
+        when(started.getPhase()).thenReturn(BookingPhase.CURRENT);
+        when(bookingRepository.findOwnershipByIds(anyCollection())).thenReturn(List.of(finished), List.of(started));
+
+        sweeper.sweep();
+
+        verify(counters).phaseChanged(2L, 1L, BookingPhase.FUTURE, BookingPhase.PAST);
+        verifyNoMoreInteractions(counters);
+    }
+
+    @Test
+    void sweep_WhenNothingDue_ShouldNotTouchDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        sweeper.schedule(1L, now.plusDays(1), now.plusDays(2), BookingPhase.FUTURE);
+
+        sweeper.sweep();
+
+        verifyNoInteractions(bookingRepository, transactionTemplate);
+    }
+}
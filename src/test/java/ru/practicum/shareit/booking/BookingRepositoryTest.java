@@ -5,11 +5,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.pagination.SeekCursor;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -23,7 +27,7 @@ class BookingRepositoryTest {
     private BookingRepository bookingRepository;
 
     @Test
-    void findByBookerId_ShouldReturnUserBookings() {
+    void findBookings_ForBooker_ShouldReturnUserBookings() {
         User owner = new User(null, "Owner", "owner@example.com");
         User booker = new User(null, "Booker", "booker@example.com");
         User savedOwner = entityManager.persistAndFlush(owner);
@@ -38,8 +42,8 @@ class BookingRepositoryTest {
                 savedItem, savedBooker, BookingStatus.WAITING);
         entityManager.persistAndFlush(booking);
 
-        List<Booking> bookings = bookingRepository.findByBookerIdOrderByStartDesc(
-                savedBooker.getId(), PageRequest.of(0, 10));
+        List<BookingResponseDto> bookings = bookingRepository.findBookings(
+                BookingRole.BOOKER, savedBooker.getId(), BookingState.ALL, 0, 10);
 
         assertThat(bookings).hasSize(1);
         assertThat(bookings.getFirst().getItem().getName()).isEqualTo("Drill");
@@ -47,7 +51,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByItemOwnerId_ShouldReturnOwnerBookings() {
+    void findBookings_ForOwner_ShouldReturnOwnerBookings() {
         User owner = new User(null, "Owner", "owner@example.com");
         User booker = new User(null, "Booker", "booker@example.com");
         User savedOwner = entityManager.persistAndFlush(owner);
@@ -62,34 +66,283 @@ class BookingRepositoryTest {
                 savedItem, savedBooker, BookingStatus.WAITING);
         entityManager.persistAndFlush(booking);
 
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdOrderByStartDesc(
-                savedOwner.getId(), PageRequest.of(0, 10));
+        List<BookingResponseDto> bookings = bookingRepository.findBookings(
+                BookingRole.OWNER, savedOwner.getId(), BookingState.ALL, 0, 10);
 
         assertThat(bookings).hasSize(1);
         assertThat(bookings.getFirst().getItem().getName()).isEqualTo("Drill");
     }
 
     @Test
-    void findFirstByItemIdAndStartLessThanEqual_ShouldReturnLastBooking() {
-        User owner = new User(null, "Owner", "owner@example.com");
-        User booker = new User(null, "Booker", "booker@example.com");
-        User savedOwner = entityManager.persistAndFlush(owner);
-        User savedBooker = entityManager.persistAndFlush(booker);
+    void findBookings_WithOffsetNotMultipleOfSize_ShouldNotShift() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persistAndFlush(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
 
-        Item item = new Item(null, "Drill", "Powerful drill", true, savedOwner, null);
-        Item savedItem = entityManager.persistAndFlush(item);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 5; i++) {
+            entityManager.persistAndFlush(new Booking(null, start.plusDays(i), start.plusDays(i).plusHours(1),
+                    item, booker, BookingStatus.WAITING));
+        }
 
-        Booking booking = new Booking(null,
-                LocalDateTime.now().minusDays(2),
-                LocalDateTime.now().minusDays(1),
-                savedItem, savedBooker, BookingStatus.APPROVED);
-        entityManager.persistAndFlush(booking);
+        List<BookingResponseDto> bookings = bookingRepository.findBookings(
+                BookingRole.OWNER, owner.getId(), BookingState.FUTURE, 3, 2);
+
+        assertThat(bookings).extracting(BookingResponseDto::getStart)
+                .containsExactly(start.plusDays(1), start);
+    }
+
+    @Test
+    void findApprovedForSummary_ShouldReturnLastStartedAndFutureBookings() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persistAndFlush(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        entityManager.persistAndFlush(new Booking(null, now.minusDays(5), now.minusDays(4),
+                item, booker, BookingStatus.APPROVED));
+        Booking last = entityManager.persistAndFlush(new Booking(null, now.minusDays(2), now.minusDays(1),
+                item, booker, BookingStatus.APPROVED));
+        Booking next = entityManager.persistAndFlush(new Booking(null, now.plusDays(1), now.plusDays(2),
+                item, booker, BookingStatus.APPROVED));
+        entityManager.persistAndFlush(new Booking(null, now.plusDays(3), now.plusDays(4),
+                item, booker, BookingStatus.WAITING));
+
+        List<ApprovedBookingView> result = bookingRepository.findApprovedForSummary(now);
+
+        assertThat(result).extracting(ApprovedBookingView::getId)
+                .containsExactlyInAnyOrder(last.getId(), next.getId());
+        assertThat(result).extracting(ApprovedBookingView::getBookerId).containsOnly(booker.getId());
+    }
+
+    @Test
+    void cancelOverdue_ShouldCancelOnlyStartedWaitingBookings() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persistAndFlush(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking overdue = entityManager.persistAndFlush(new Booking(null, now.minusDays(1), now.plusDays(1),
+                item, booker, BookingStatus.WAITING));
+        Booking approved = entityManager.persistAndFlush(new Booking(null, now.minusDays(3), now.minusDays(2),
+                item, booker, BookingStatus.APPROVED));
+        entityManager.persistAndFlush(new Booking(null, now.plusDays(2), now.plusDays(3),
+                item, booker, BookingStatus.WAITING));
+
+        List<Long> ids = bookingRepository.findOverdueWaitingIds(now, PageRequest.of(0, 10));
+        int updated = bookingRepository.cancelOverdue(List.of(overdue.getId(), approved.getId()), now);
+        entityManager.clear();
+
+        assertThat(ids).containsExactly(overdue.getId());
+        assertThat(updated).isEqualTo(1);
+        assertThat(entityManager.find(Booking.class, overdue.getId()).getStatus()).isEqualTo(BookingStatus.CANCELED);
+        assertThat(entityManager.find(Booking.class, approved.getId()).getStatus()).isEqualTo(BookingStatus.APPROVED);
+    }
+
+    @Test
+    void archive_ShouldMoveBookingsAndKeepThemVisibleForPastQueries() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persistAndFlush(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking old = entityManager.persistAndFlush(new Booking(null, now.minusYears(2), now.minusYears(2).plusDays(1),
+                item, booker, BookingStatus.APPROVED));
+        Booking recent = entityManager.persistAndFlush(new Booking(null, now.minusDays(3), now.minusDays(2),
+                item, booker, BookingStatus.APPROVED));
+
+        List<Long> ids = bookingRepository.findArchivableIds(now.minusYears(1), 0, 10);
+        int archived = bookingRepository.archive(ids);
+        entityManager.clear();
+
+        assertThat(ids).containsExactly(old.getId());
+        assertThat(archived).isEqualTo(1);
+        assertThat(bookingRepository.existsById(old.getId())).isFalse();
+        assertThat(bookingRepository.findBookings(BookingRole.BOOKER, booker.getId(), BookingState.PAST, 0, 10))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(recent.getId(), old.getId());
+        assertThat(bookingRepository.findBookings(BookingRole.BOOKER, booker.getId(), BookingState.PAST, 1, 10))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(old.getId());
+        assertThat(bookingRepository.findBookingsAfter(BookingRole.OWNER, owner.getId(), BookingState.ALL,
+                new SeekCursor(recent.getStart(), recent.getId()), 10))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(old.getId());
+    }
+
+    @Test
+    void findBookings_WhenArchiveOverlapsHotDates_ShouldMergeByStart() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persistAndFlush(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking older = entityManager.persistAndFlush(new Booking(null, now.minusDays(20), now.minusDays(19),
+                item, booker, BookingStatus.APPROVED));
+        Booking archived = entityManager.persistAndFlush(new Booking(null, now.minusDays(15), now.minusDays(14),
+                item, booker, BookingStatus.APPROVED));
+        Booking newer = entityManager.persistAndFlush(new Booking(null, now.minusDays(10), now.minusDays(9),
+                item, booker, BookingStatus.APPROVED));
+        bookingRepository.archive(List.of(archived.getId()));
+        entityManager.clear();
+
+        assertThat(bookingRepository.findBookings(BookingRole.BOOKER, booker.getId(), BookingState.ALL, 0, 10))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(newer.getId(), archived.getId(), older.getId());
+        assertThat(bookingRepository.findBookings(BookingRole.BOOKER, booker.getId(), BookingState.PAST, 1, 1))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(archived.getId());
+
+        assertThat(bookingRepository.findBookingsAfter(BookingRole.OWNER, owner.getId(), BookingState.ALL,
+                new SeekCursor(newer.getStart(), newer.getId()), 1))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(archived.getId());
+        assertThat(bookingRepository.findBookingsAfter(BookingRole.OWNER, owner.getId(), BookingState.ALL,
+                new SeekCursor(archived.getStart(), archived.getId()), 1))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(older.getId());
+    }
+
+    @Test
+    void findBookings_WhenPageCrossesRetentionCutoff_ShouldMergeOnlyOlderRows() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persistAndFlush(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking newest = entityManager.persistAndFlush(new Booking(null, now.minusDays(2), now.minusDays(1),
+                item, booker, BookingStatus.APPROVED));
+        Booking recent = entityManager.persistAndFlush(new Booking(null, now.minusDays(3), now.minusDays(2),
+                item, booker, BookingStatus.APPROVED));
+        Booking archived = entityManager.persistAndFlush(new Booking(null, now.minusYears(2),
+                now.minusYears(2).plusDays(1), item, booker, BookingStatus.APPROVED));
+        Booking oldest = entityManager.persistAndFlush(new Booking(null, now.minusYears(3),
+                now.minusYears(3).plusDays(1), item, booker, BookingStatus.APPROVED));
+        bookingRepository.archive(List.of(archived.getId()));
+        entityManager.clear();
+
+        assertThat(bookingRepository.findBookings(BookingRole.BOOKER, booker.getId(), BookingState.ALL, 0, 2))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(newest.getId(), recent.getId());
+        assertThat(bookingRepository.findBookings(BookingRole.BOOKER, booker.getId(), BookingState.ALL, 1, 2))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(recent.getId(), archived.getId());
+        assertThat(bookingRepository.findBookings(BookingRole.BOOKER, booker.getId(), BookingState.ALL, 2, 2))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(archived.getId(), oldest.getId());
+        assertThat(bookingRepository.findBookings(BookingRole.BOOKER, booker.getId(), BookingState.ALL, 3, 2))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(oldest.getId());
+        assertThat(bookingRepository.findBookingsAfter(BookingRole.OWNER, owner.getId(), BookingState.ALL,
+                new SeekCursor(recent.getStart(), recent.getId()), 2))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(archived.getId(), oldest.getId());
+    }
+
+    @Test
+    void hasCompletedBooking_WhenBookingArchived_ShouldReturnTrue() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persistAndFlush(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
 
         LocalDateTime now = LocalDateTime.now();
-        var result = bookingRepository.findFirstByItemIdAndStartLessThanEqualAndStatusOrderByStartDesc(
-                savedItem.getId(), now, BookingStatus.APPROVED);
+        Booking old = entityManager.persistAndFlush(new Booking(null, now.minusYears(2), now.minusYears(2).plusDays(1),
+                item, booker, BookingStatus.APPROVED));
+        bookingRepository.archive(List.of(old.getId()));
+        entityManager.clear();
+
+        assertThat(bookingRepository.hasCompletedBooking(booker.getId(), item.getId(), now)).isTrue();
+        assertThat(bookingRepository.hasCompletedBooking(owner.getId(), item.getId(), now)).isFalse();
+    }
+
+    @Test
+    void findBookingsAfter_ShouldSeekPastCursor() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persistAndFlush(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 5; i++) {
+            entityManager.persistAndFlush(new Booking(null, start.plusDays(i), start.plusDays(i).plusHours(1),
+                    item, booker, BookingStatus.WAITING));
+        }
+
+        List<BookingResponseDto> firstPage = bookingRepository.findBookingsAfter(
+                BookingRole.BOOKER, booker.getId(), BookingState.ALL, null, 2);
+        BookingResponseDto last = firstPage.get(1);
+        List<BookingResponseDto> secondPage = bookingRepository.findBookingsAfter(
+                BookingRole.BOOKER, booker.getId(), BookingState.ALL,
+                new SeekCursor(last.getStart(), last.getId()), 2);
+
+        assertThat(firstPage).extracting(BookingResponseDto::getStart)
+                .containsExactly(start.plusDays(4), start.plusDays(3));
+        assertThat(secondPage).extracting(BookingResponseDto::getStart)
+                .containsExactly(start.plusDays(2), start.plusDays(1));
+    }
+
+    @Test
+    void compareAndSetStatus_ShouldSucceedOnlyOnceForWaitingBooking() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persistAndFlush(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
+        Booking booking = entityManager.persistAndFlush(new Booking(null, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), item, booker, BookingStatus.WAITING));
+        entityManager.clear();
+
+        int notOwner = bookingRepository.compareAndSetStatus(
+                booking.getId(), booker.getId(), BookingStatus.WAITING, BookingStatus.APPROVED);
+        int first = bookingRepository.compareAndSetStatus(
+                booking.getId(), owner.getId(), BookingStatus.WAITING, BookingStatus.APPROVED);
+        int second = bookingRepository.compareAndSetStatus(
+                booking.getId(), owner.getId(), BookingStatus.WAITING, BookingStatus.REJECTED);
+
+        assertThat(notOwner).isZero();
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        assertThat(bookingRepository.findResponseById(booking.getId()))
+                .hasValueSatisfying(dto -> assertThat(dto.getStatus()).isEqualTo(BookingStatus.APPROVED));
+    }
+
+    @Test
+    void compareAndSetStatuses_ShouldReportAffectedRowsPerBooking() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persistAndFlush(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
+        Booking waiting = entityManager.persistAndFlush(new Booking(null, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), item, booker, BookingStatus.WAITING));
+        Booking approved = entityManager.persistAndFlush(new Booking(null, LocalDateTime.now().plusDays(3),
+                LocalDateTime.now().plusDays(4), item, booker, BookingStatus.APPROVED));
+
+        Map<Long, BookingStatus> statuses = new LinkedHashMap<>();
+        statuses.put(waiting.getId(), BookingStatus.REJECTED);
+        statuses.put(approved.getId(), BookingStatus.REJECTED);
+
+        int[] updated = bookingRepository.compareAndSetStatuses(statuses, BookingStatus.WAITING);
+
+        assertThat(updated).containsExactly(1, 0);
+        assertThat(entityManager.find(Booking.class, waiting.getId()).getStatus()).isEqualTo(BookingStatus.REJECTED);
+    }
+
+    @Test
+    void persist_ShouldSetPhaseAndItemOwner() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persistAndFlush(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
+        LocalDateTime now = LocalDateTime.now();
+
+        Booking past = entityManager.persistAndFlush(new Booking(null, now.minusDays(2), now.minusDays(1),
+                item, booker, BookingStatus.APPROVED));
+        Booking current = entityManager.persistAndFlush(new Booking(null, now.minusDays(1), now.plusDays(1),
+                item, booker, BookingStatus.APPROVED));
+        Booking future = entityManager.persistAndFlush(new Booking(null, now.plusDays(1), now.plusDays(2),
+                item, booker, BookingStatus.WAITING));
 
-        assertThat(result).isPresent();
-        assertThat(result.get().getItem().getName()).isEqualTo("Drill");
+        assertThat(past.getPhase()).isEqualTo(BookingPhase.PAST);
+        assertThat(current.getPhase()).isEqualTo(BookingPhase.CURRENT);
+        assertThat(future.getPhase()).isEqualTo(BookingPhase.FUTURE);
+        assertThat(future.getItemOwnerId()).isEqualTo(owner.getId());
+        assertThat(bookingRepository.findBookings(BookingRole.BOOKER, booker.getId(), BookingState.CURRENT, 0, 10))
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(current.getId());
     }
 }
\ No newline at end of file
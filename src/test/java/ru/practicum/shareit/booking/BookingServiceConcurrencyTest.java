@@ -0,0 +1,146 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+class BookingServiceConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 200;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookingPhaseSweeper phaseSweeper;
+
+    @Mock
+    private ItemBookingSummary bookingSummary;
+
+    @Mock
+    private BookingCounters counters;
+
+    private BookingService bookingService;
+
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        bookingService = new BookingServiceImpl(bookingRepository, itemRepository, userRepository,
+                new BookingIntervalIndex(bookingRepository), phaseSweeper, bookingSummary, new BookingItemLocks(64),
+                counters);
+        base = LocalDateTime.now().plusDays(1).withNano(0);
+
+        User owner = new User(1L, "Owner", "owner@example.com");
+        User booker = new User(2L, "Booker", "booker@example.com");
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.of(new Item(invocation.getArgument(0), "Drill", "Powerful drill", true, owner, null)));
+
+        AtomicLong ids = new AtomicLong();
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setId(ids.incrementAndGet());
+            return booking;
+        });
+    }
+
+    @Test
+    void createBooking_WhenSamePeriodBookedConcurrently_ShouldAcceptOnlyOne() throws Exception {
+        int created = run(attempt -> new BookingRequestDto(1L, base, base.plusDays(1)), "одна вещь");
+
+        assertThat(created).isEqualTo(1);
+    }
+
+    @Test
+    void createBooking_WhenDifferentItemsBookedConcurrently_ShouldAcceptAll() throws Exception {
+        int created = run(attempt -> new BookingRequestDto((long) attempt, base, base.plusDays(1)), "разные вещи");
+
+        assertThat(created).isEqualTo(THREADS * ATTEMPTS_PER_THREAD);
+    }
+
+    @Test
+    void createBooking_WhenSameItemDisjointPeriods_ShouldAcceptAll() throws Exception {
+        int created = run(attempt -> new BookingRequestDto(1L,
+                base.plusHours(attempt), base.plusHours(attempt + 1)), "одна вещь, разные периоды");
+
+        assertThat(created).isEqualTo(THREADS * ATTEMPTS_PER_THREAD);
+    }
+
+    // Пропускная способность пишется в лог теста: порогов нет, чтобы результат не зависел от машины сборки
+    private int run(RequestFactory requests, String scenario) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        bookingService.createBooking(requests.create(attempts.incrementAndGet()), 2L);
+                        created.incrementAndGet();
+                    } catch (ValidationException e) {
+                        // Пересечение с уже созданным бронированием
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        int total = THREADS * ATTEMPTS_PER_THREAD;
+        assertThat(attempts.get()).isEqualTo(total);
+        log.info("{}: {} попыток за {} мс, {} оп/с, создано {}", scenario, total,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), Math.round(total * 1e9 / elapsed), created.get());
+        return created.get();
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        BookingRequestDto create(int attempt);
+    }
+}
@@ -5,10 +5,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.exception.AccessDeniedException;
+import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
@@ -36,6 +43,18 @@ class BookingServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private BookingIntervalIndex intervalIndex;
+
+    @Mock
+    private BookingPhaseSweeper phaseSweeper;
+
+    @Mock
+    private ItemBookingSummary bookingSummary;
+
+    @Mock
+    private BookingCounters counters;
+
     private BookingService bookingService;
 
     private User owner;
@@ -45,7 +64,8 @@ class BookingServiceTest {
 
     @BeforeEach
     void setUp() {
-        bookingService = new BookingServiceImpl(bookingRepository, itemRepository, userRepository);
+        bookingService = new BookingServiceImpl(bookingRepository, itemRepository, userRepository, intervalIndex,
+                phaseSweeper, bookingSummary, new BookingItemLocks(4), counters);
 
         owner = new User(1L, "Owner", "owner@example.com");
         booker = new User(2L, "Booker", "booker@example.com");
@@ -114,24 +134,86 @@ class BookingServiceTest {
                 .hasMessage("Дата начала не может быть позже даты окончания");
     }
 
+    @Test
+    void createBooking_WhenPeriodOverlaps_ShouldThrowException() {
+        BookingRequestDto bookingDto = new BookingRequestDto(1L,
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2));
+
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(intervalIndex.hasConflict(1L, bookingDto.getStart(), bookingDto.getEnd())).thenReturn(true);
+
+        assertThatThrownBy(() -> bookingService.createBooking(bookingDto, 2L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Вещь уже забронирована на указанный период");
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
     @Test
     void updateBookingStatus_WhenApproved_ShouldUpdateStatus() {
-        Booking waitingBooking = new Booking(1L, LocalDateTime.now().plusDays(1),
-                LocalDateTime.now().plusDays(2), item, booker, BookingStatus.WAITING);
         Booking approvedBooking = new Booking(1L, LocalDateTime.now().plusDays(1),
                 LocalDateTime.now().plusDays(2), item, booker, BookingStatus.APPROVED);
 
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(waitingBooking));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(approvedBooking);
+        when(bookingRepository.compareAndSetStatus(1L, 1L, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
+        when(bookingRepository.findResponseById(1L)).thenReturn(Optional.of(BookingMapper.toDto(approvedBooking)));
 
         BookingResponseDto result = bookingService.updateBookingStatus(1L, true, 1L);
 
         assertThat(result.getStatus()).isEqualTo(BookingStatus.APPROVED);
-        verify(bookingRepository).save(any(Booking.class));
+        verify(bookingSummary).approved(1L, 1L, 2L, approvedBooking.getStart());
+        verify(counters).decided(2L, 1L);
+        verify(bookingRepository, never()).findById(anyLong());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void updateBookingStatus_WhenApprovedInTransaction_ShouldUpdateSummaryOnlyAfterCommit() {
+        Booking approvedBooking = new Booking(1L, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), item, booker, BookingStatus.APPROVED);
+
+        when(bookingRepository.compareAndSetStatus(1L, 1L, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
+        when(bookingRepository.findResponseById(1L)).thenReturn(Optional.of(BookingMapper.toDto(approvedBooking)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.updateBookingStatus(1L, true, 1L);
+            verifyNoInteractions(bookingSummary);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(bookingSummary).approved(1L, 1L, 2L, approvedBooking.getStart());
+    }
+
+    @Test
+    void updateBookingStatus_WhenRejectedInTransaction_ShouldFreeSlotOnlyAfterCommit() {
+        Booking rejectedBooking = new Booking(1L, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), item, booker, BookingStatus.REJECTED);
+
+        when(bookingRepository.compareAndSetStatus(1L, 1L, BookingStatus.WAITING, BookingStatus.REJECTED))
+                .thenReturn(1);
+        when(bookingRepository.findResponseById(1L)).thenReturn(Optional.of(BookingMapper.toDto(rejectedBooking)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.updateBookingStatus(1L, false, 1L);
+            verify(intervalIndex, never()).remove(anyLong());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(intervalIndex).remove(1L);
     }
 
     @Test
     void updateBookingStatus_WhenNotOwner_ShouldThrowException() {
+        when(bookingRepository.compareAndSetStatus(1L, 3L, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(0);
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
 
         assertThatThrownBy(() -> bookingService.updateBookingStatus(1L, true, 3L))
@@ -139,6 +221,92 @@ class BookingServiceTest {
                 .hasMessage("Подтверждать бронирование может только владелец вещи");
     }
 
+    @Test
+    void updateBookingStatus_WhenAlreadyDecided_ShouldThrowException() {
+        when(bookingRepository.compareAndSetStatus(1L, 1L, BookingStatus.WAITING, BookingStatus.REJECTED))
+                .thenReturn(0);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+
+        assertThatThrownBy(() -> bookingService.updateBookingStatus(1L, false, 1L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Статус бронирования уже изменен");
+        verify(intervalIndex, never()).remove(anyLong());
+    }
+
+    @Test
+    void updateBookingStatuses_ShouldReturnOutcomePerBooking() {
+        when(bookingRepository.findOwnershipByIds(anyCollection())).thenReturn(List.of(
+                new Ownership(1L, 1L, 1L, BookingStatus.WAITING),
+                new Ownership(2L, 1L, 1L, BookingStatus.WAITING),
+                new Ownership(3L, 1L, 1L, BookingStatus.APPROVED),
+                new Ownership(4L, 7L, 9L, BookingStatus.WAITING),
+                new Ownership(5L, 1L, 1L, BookingStatus.WAITING)));
+        when(bookingRepository.compareAndSetStatuses(anyMap(), eq(BookingStatus.WAITING)))
+                .thenReturn(new int[]{1, 1, 0});
+
+        List<BookingDecisionResultDto> result = bookingService.updateBookingStatuses(List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false),
+                new BookingDecisionDto(3L, true),
+                new BookingDecisionDto(4L, true),
+                new BookingDecisionDto(5L, true),
+                new BookingDecisionDto(6L, true)), 1L);
+
+        assertThat(result).extracting(BookingDecisionResultDto::getOutcome).containsExactly(
+                BookingDecisionOutcome.APPROVED,
+                BookingDecisionOutcome.REJECTED,
+                BookingDecisionOutcome.ALREADY_DECIDED,
+                BookingDecisionOutcome.FORBIDDEN,
+                BookingDecisionOutcome.ALREADY_DECIDED,
+                BookingDecisionOutcome.NOT_FOUND);
+        verify(intervalIndex).remove(2L);
+        verify(bookingSummary).approved(eq(1L), eq(1L), eq(2L), any(LocalDateTime.class));
+        verify(bookingSummary, never()).approved(anyLong(), eq(5L), anyLong(), any(LocalDateTime.class));
+        verify(counters, times(2)).decided(2L, 1L);
+    }
+
+    @Test
+    void updateBookingStatuses_WhenDriverGivesNoCount_ShouldRereadStatuses() {
+        when(bookingRepository.findOwnershipByIds(anyCollection())).thenReturn(List.of(
+                        new Ownership(1L, 1L, 1L, BookingStatus.WAITING),
+                        new Ownership(2L, 1L, 1L, BookingStatus.WAITING),
+                        new Ownership(3L, 1L, 1L, BookingStatus.WAITING)))
+                .thenReturn(List.of(
+                        new Ownership(1L, 1L, 1L, BookingStatus.REJECTED),
+                        new Ownership(3L, 1L, 1L, BookingStatus.REJECTED)));
+        when(bookingRepository.compareAndSetStatuses(anyMap(), eq(BookingStatus.WAITING)))
+                .thenReturn(new int[]{
+                        Statement.SUCCESS_NO_INFO, Statement.EXECUTE_FAILED, Statement.SUCCESS_NO_INFO});
+
+        List<BookingDecisionResultDto> result = bookingService.updateBookingStatuses(List.of(
+                new BookingDecisionDto(1L, false),
+                new BookingDecisionDto(2L, false),
+                new BookingDecisionDto(3L, true)), 1L);
+
+        assertThat(result).extracting(BookingDecisionResultDto::getOutcome).containsExactly(
+                BookingDecisionOutcome.REJECTED,
+                BookingDecisionOutcome.ALREADY_DECIDED,
+                BookingDecisionOutcome.ALREADY_DECIDED);
+        verify(bookingRepository).findOwnershipByIds(List.of(1L, 3L));
+        verify(intervalIndex).remove(1L);
+        verify(bookingSummary, never()).approved(anyLong(), anyLong(), anyLong(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void updateBookingStatuses_WithEmptyList_ShouldNotQueryRepository() {
+        assertThat(bookingService.updateBookingStatuses(List.of(), 1L)).isEmpty();
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void updateBookingStatuses_WhenBookingRepeated_ShouldThrowException() {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(1L, false));
+
+        assertThatThrownBy(() -> bookingService.updateBookingStatuses(decisions, 1L))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     void getBookingById_WhenAuthor_ShouldReturnBooking() {
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
@@ -160,9 +328,8 @@ class BookingServiceTest {
 
     @Test
     void getUserBookings_WithAllState_ShouldReturnAllBookings() {
-        when(userRepository.existsById(2L)).thenReturn(true);
-        when(bookingRepository.findByBookerIdOrderByStartDesc(eq(2L), any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(eq(BookingRole.BOOKER), eq(2L), eq(BookingState.ALL), eq(0), eq(10)))
+                .thenReturn(List.of(BookingMapper.toDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getUserBookings(BookingState.ALL, 2L, 0, 10);
 
@@ -172,13 +339,132 @@ class BookingServiceTest {
 
     @Test
     void getOwnerBookings_WithAllState_ShouldReturnAllBookings() {
-        when(userRepository.existsById(1L)).thenReturn(true);
-        when(bookingRepository.findByItemOwnerIdOrderByStartDesc(eq(1L), any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findBookings(eq(BookingRole.OWNER), eq(1L), eq(BookingState.ALL), eq(0), eq(10)))
+                .thenReturn(List.of(BookingMapper.toDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getOwnerBookings(BookingState.ALL, 1L, 0, 10);
 
         assertThat(result).hasSize(1);
         assertThat(result.getFirst().getId()).isEqualTo(1L);
     }
+
+    @Test
+    void getUserBookings_WhenNoBookingsAndUserNotExists_ShouldThrowException() {
+        when(bookingRepository.findBookings(eq(BookingRole.BOOKER), eq(5L), eq(BookingState.ALL), eq(0), eq(10)))
+                .thenReturn(List.of());
+        when(userRepository.existsById(5L)).thenReturn(false);
+
+        assertThatThrownBy(() -> bookingService.getUserBookings(BookingState.ALL, 5L, 0, 10))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void getUserBookingsPage_WhenMoreBookingsExist_ShouldReturnNextCursor() {
+        Booking older = new Booking(2L, LocalDateTime.now().minusDays(3),
+                LocalDateTime.now().minusDays(2), item, booker, BookingStatus.APPROVED);
+
+        when(bookingRepository.findBookingsAfter(eq(BookingRole.BOOKER), eq(2L), eq(BookingState.ALL), isNull(), eq(2)))
+                .thenReturn(List.of(BookingMapper.toDto(booking), BookingMapper.toDto(older)));
+
+        BookingPageDto result = bookingService.getUserBookingsPage(BookingState.ALL, 2L, "", 1);
+
+        assertThat(result.getBookings()).hasSize(1);
+        assertThat(result.getNextCursor()).isNotNull();
+    }
+
+    @Test
+    void getOwnerBookingsPage_WithNonPositiveSize_ShouldThrowValidationException() {
+        assertThatThrownBy(() -> bookingService.getOwnerBookingsPage(BookingState.ALL, 1L, null, 0))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> bookingService.getUserBookingsPage(BookingState.ALL, 2L, null, -1))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getItemAvailability_ShouldReturnFreePeriodsFromIndex() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(3);
+
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(intervalIndex.freePeriods(1L, from, to))
+                .thenReturn(List.of(new BookingIntervalIndex.Period(from.plusDays(1), to)));
+
+        ItemAvailabilityDto result = bookingService.getItemAvailability(1L, from, to);
+
+        assertThat(result.getFreePeriods()).hasSize(1);
+        assertThat(result.getFreePeriods().getFirst().getStart()).isEqualTo(from.plusDays(1));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getItemAvailability_WhenItemNotExists_ShouldThrowException() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        when(itemRepository.existsById(1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> bookingService.getItemAvailability(1L, from, from.plusDays(1)))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void getUserBookingCounts_WhenCountersNotEmpty_ShouldNotQueryDatabase() {
+        when(counters.get(BookingRole.BOOKER, 2L)).thenReturn(new BookingCountsDto(1, 0, 2));
+
+        BookingCountsDto result = bookingService.getUserBookingCounts(2L);
+
+        assertThat(result.getFuture()).isEqualTo(2);
+        verifyNoInteractions(userRepository, bookingRepository);
+    }
+
+    @Test
+    void getOwnerBookingCounts_WhenUserNotFound_ShouldThrowException() {
+        when(counters.get(BookingRole.OWNER, 99L)).thenReturn(new BookingCountsDto(0, 0, 0));
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> bookingService.getOwnerBookingCounts(99L))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    private record Ownership(Long id, Long itemId, Long ownerId, Long bookerId, LocalDateTime start,
+                             BookingStatus status, BookingPhase phase) implements BookingOwnershipView {
+        private Ownership(Long id, Long itemId, Long ownerId, BookingStatus status) {
+            this(id, itemId, ownerId, 2L, LocalDateTime.now().plusDays(1), status, BookingPhase.FUTURE);
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getItemId() {
+            return itemId;
+        }
+
+        @Override
+        public Long getOwnerId() {
+            return ownerId;
+        }
+
+        @Override
+        public Long getBookerId() {
+            return bookerId;
+        }
+
+        @Override
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        @Override
+        public BookingStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public BookingPhase getPhase() {
+            return phase;
+        }
+    }
 }
\ No newline at end of file
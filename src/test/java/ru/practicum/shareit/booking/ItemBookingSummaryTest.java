@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingSummaryTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private ItemBookingSummary summary;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        summary = new ItemBookingSummary(bookingRepository);
+        now = LocalDateTime.now().withNano(0);
+
+        summary.approved(1L, 10L, 2L, now.minusDays(3));
+        summary.approved(1L, 11L, 3L, now.minusDays(1));
+        summary.approved(1L, 12L, 4L, now.plusDays(1));
+        summary.approved(1L, 13L, 5L, now.plusDays(2));
+    }
+
+    @Test
+    void get_ShouldReturnLastStartedAndNearestFutureBooking() {
+        ItemBookingSummary.Summary result = summary.get(1L, now);
+
+        assertThat(result.last()).isEqualTo(new ItemBookingSummary.BookingRef(11L, 3L));
+        assertThat(result.next()).isEqualTo(new ItemBookingSummary.BookingRef(12L, 4L));
+    }
+
+    @Test
+    void get_WhenBookingStarted_ShouldMoveItToLast() {
+        ItemBookingSummary.Summary result = summary.get(1L, now.plusDays(1).plusHours(1));
+
+        assertThat(result.last()).isEqualTo(new ItemBookingSummary.BookingRef(12L, 4L));
+        assertThat(result.next()).isEqualTo(new ItemBookingSummary.BookingRef(13L, 5L));
+    }
+
+    @Test
+    void remove_ShouldDropBookingFromSummary() {
+        summary.remove(12L);
+
+        ItemBookingSummary.Summary result = summary.get(1L, now);
+
+        assertThat(result.next()).isEqualTo(new ItemBookingSummary.BookingRef(13L, 5L));
+    }
+
+    @Test
+    void get_WhenNoBookings_ShouldReturnEmptySummary() {
+        ItemBookingSummary.Summary result = summary.get(2L, now);
+
+        assertThat(result.last()).isNull();
+        assertThat(result.next()).isNull();
+    }
+}
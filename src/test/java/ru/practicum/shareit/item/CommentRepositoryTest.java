@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
@@ -21,49 +23,45 @@ class CommentRepositoryTest {
     private CommentRepository commentRepository;
 
     @Test
-    void findByItemId_ShouldReturnCommentsForItem() {
-        User owner = new User(null, "Owner", "owner@example.com");
-        User author = new User(null, "Author", "author@example.com");
-        User savedOwner = entityManager.persistAndFlush(owner);
-        User savedAuthor = entityManager.persistAndFlush(author);
-
-        Item item = new Item(null, "Drill", "Powerful drill", true, savedOwner, null);
-        Item savedItem = entityManager.persistAndFlush(item);
-
-        Comment comment1 = new Comment(null, "Great item!", savedItem, savedAuthor, LocalDateTime.now());
-        Comment comment2 = new Comment(null, "Very useful", savedItem, savedAuthor, LocalDateTime.now().plusHours(1));
-        entityManager.persistAndFlush(comment1);
-        entityManager.persistAndFlush(comment2);
-
-        List<Comment> comments = commentRepository.findByItemIdOrderByCreatedDesc(savedItem.getId());
-
-        assertThat(comments).hasSize(2);
-        assertThat(comments.get(0).getText()).isEqualTo("Very useful"); // Should be ordered by created desc
-        assertThat(comments.get(1).getText()).isEqualTo("Great item!");
+    void findNewestByItemId_ShouldPageWithAuthorNames() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User author = entityManager.persistAndFlush(new User(null, "Author", "author@example.com"));
+        Item item = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            entityManager.persistAndFlush(new Comment(null, "Comment " + i, item, author, now.plusHours(i)));
+        }
+
+        List<CommentResponseDto> first = commentRepository.findNewestByItemId(item.getId(), PageRequest.of(0, 2));
+        CommentResponseDto last = first.get(first.size() - 1);
+        List<CommentResponseDto> rest = commentRepository.findByItemIdAfter(
+                item.getId(), last.getCreated(), last.getId(), PageRequest.of(0, 2));
+
+        assertThat(first).extracting(CommentResponseDto::getText).containsExactly("Comment 2", "Comment 1");
+        assertThat(first).extracting(CommentResponseDto::getAuthorName).containsOnly("Author");
+        assertThat(rest).extracting(CommentResponseDto::getText).containsExactly("Comment 0");
+        assertThat(commentRepository.countByItemId(item.getId())).isEqualTo(3);
     }
 
     @Test
-    void findByItemIdIn_ShouldReturnCommentsForMultipleItems() {
-        User owner = new User(null, "Owner", "owner@example.com");
-        User author = new User(null, "Author", "author@example.com");
-        User savedOwner = entityManager.persistAndFlush(owner);
-        User savedAuthor = entityManager.persistAndFlush(author);
-
-        Item item1 = new Item(null, "Drill", "Powerful drill", true, savedOwner, null);
-        Item item2 = new Item(null, "Hammer", "Heavy hammer", true, savedOwner, null);
-        Item savedItem1 = entityManager.persistAndFlush(item1);
-        Item savedItem2 = entityManager.persistAndFlush(item2);
-
-        Comment comment1 = new Comment(null, "Great drill!", savedItem1, savedAuthor, LocalDateTime.now());
-        Comment comment2 = new Comment(null, "Good hammer", savedItem2, savedAuthor, LocalDateTime.now());
-        entityManager.persistAndFlush(comment1);
-        entityManager.persistAndFlush(comment2);
-
-        List<Comment> comments = commentRepository.findByItemIdInOrderByCreatedDesc(
-                List.of(savedItem1.getId(), savedItem2.getId()));
-
-        assertThat(comments).hasSize(2);
-        assertThat(comments).extracting(Comment::getText)
-                .containsExactlyInAnyOrder("Great drill!", "Good hammer");
+    void findNewestByItemIds_ShouldLimitCommentsPerItem() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+        User author = entityManager.persistAndFlush(new User(null, "Author", "author@example.com"));
+        Item drill = entityManager.persistAndFlush(new Item(null, "Drill", "Powerful drill", true, owner, null));
+        Item hammer = entityManager.persistAndFlush(new Item(null, "Hammer", "Heavy hammer", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            entityManager.persistAndFlush(new Comment(null, "Drill " + i, drill, author, now.plusHours(i)));
+        }
+        entityManager.persistAndFlush(new Comment(null, "Hammer", hammer, author, now));
+
+        List<CommentView> comments = commentRepository.findNewestByItemIds(List.of(drill.getId(), hammer.getId()), 2);
+        List<CommentCountView> counts = commentRepository.countByItemIds(List.of(drill.getId()));
+
+        assertThat(comments).extracting(CommentView::getText).containsExactly("Drill 2", "Drill 1", "Hammer");
+        assertThat(comments).extracting(CommentView::getAuthorName).containsOnly("Author");
+        assertThat(counts).extracting(CommentCountView::getCount).containsExactly(3L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemBitmapTest {
+
+    @Test
+    void add_ShouldKeepIdsFromDifferentBlocks() {
+        ItemBitmap bitmap = ItemBitmap.of(1L, 70_000L, 5_000_000_000L, 1L);
+
+        assertThat(bitmap.cardinality()).isEqualTo(3);
+        assertThat(bitmap.contains(70_000L)).isTrue();
+        assertThat(bitmap.contains(5_000_000_000L)).isTrue();
+        assertThat(bitmap.contains(2L)).isFalse();
+    }
+
+    @Test
+    void remove_ShouldDropEmptyBlocks() {
+        ItemBitmap bitmap = ItemBitmap.of(1L, 70_000L);
+
+        bitmap.remove(70_000L);
+        bitmap.remove(3L);
+
+        assertThat(bitmap.cardinality()).isEqualTo(1);
+        assertThat(bitmap.contains(70_000L)).isFalse();
+        assertThat(bitmap.and(ItemBitmap.of(70_000L)).isEmpty()).isTrue();
+    }
+
+    @Test
+    void denseBlock_ShouldSwitchToBitmapAndBack() {
+        ItemBitmap bitmap = new ItemBitmap();
+        LongStream.range(0, ItemBitmap.ARRAY_LIMIT + 100).forEach(bitmap::add);
+
+        assertThat(bitmap.cardinality()).isEqualTo(ItemBitmap.ARRAY_LIMIT + 100);
+        assertThat(bitmap.contains(ItemBitmap.ARRAY_LIMIT + 99)).isTrue();
+
+        LongStream.range(0, 200).forEach(bitmap::remove);
+
+        assertThat(bitmap.cardinality()).isEqualTo(ItemBitmap.ARRAY_LIMIT - 100);
+        assertThat(bitmap.contains(199L)).isFalse();
+        assertThat(bitmap.contains(200L)).isTrue();
+    }
+
+    @Test
+    void and_ShouldMatchSetIntersectionForSparseAndDenseBlocks() {
+        Random random = new Random(42);
+        Set<Long> dense = new HashSet<>();
+        Set<Long> sparse = new HashSet<>();
+        ItemBitmap denseBitmap = new ItemBitmap();
+        ItemBitmap sparseBitmap = new ItemBitmap();
+        for (int i = 0; i < 50_000; i++) {
+            long id = random.nextInt(200_000);
+            dense.add(id);
+            denseBitmap.add(id);
+            if (i % 20 == 0) {
+                long other = random.nextInt(200_000);
+                sparse.add(other);
+                sparseBitmap.add(other);
+            }
+        }
+
+        Set<Long> expected = new HashSet<>(dense);
+        expected.retainAll(sparse);
+        ItemBitmap intersection = denseBitmap.and(sparseBitmap);
+        ItemBitmap self = denseBitmap.and(denseBitmap.snapshot());
+
+        assertThat(intersection.cardinality()).isEqualTo(expected.size());
+        expected.forEach(id -> assertThat(intersection.contains(id)).isTrue());
+        assertThat(self.cardinality()).isEqualTo(dense.size());
+    }
+
+    @Test
+    void toArray_ShouldListIdsInAscendingOrderAcrossBlocks() {
+        ItemBitmap bitmap = ItemBitmap.of(5_000_000_000L, 70_000L, 3L);
+        LongStream.range(200_000, 200_000 + ItemBitmap.ARRAY_LIMIT + 1).forEach(bitmap::add);
+
+        long[] ids = bitmap.toArray();
+
+        assertThat(ids).hasSize((int) bitmap.cardinality()).isSorted();
+        assertThat(ids).startsWith(3L, 70_000L, 200_000L).endsWith(200_000L + ItemBitmap.ARRAY_LIMIT, 5_000_000_000L);
+    }
+
+    @Test
+    void builder_ShouldMatchIncrementalAddsInAnyOrder() {
+        Random random = new Random(7);
+        ItemBitmap.Builder builder = new ItemBitmap.Builder();
+        ItemBitmap expected = new ItemBitmap();
+        LongStream.range(0, ItemBitmap.ARRAY_LIMIT + 10).forEach(id -> {
+            builder.add(id);
+            expected.add(id);
+        });
+        for (int i = 0; i < 3_000; i++) {
+            long id = 100_000 + random.nextInt(50_000);
+            builder.add(id);
+            expected.add(id);
+        }
+
+        ItemBitmap built = builder.build();
+        built.add(1_000_000L);
+        built.remove(0L);
+        expected.add(1_000_000L);
+        expected.remove(0L);
+
+        assertThat(built.cardinality()).isEqualTo(expected.cardinality());
+        assertThat(built.toArray()).containsExactly(expected.toArray());
+    }
+
+    @Test
+    void snapshot_ShouldNotSeeLaterChanges() {
+        ItemBitmap bitmap = ItemBitmap.of(1L, 2L);
+        ItemBitmap snapshot = bitmap.snapshot();
+
+        bitmap.add(3L);
+        bitmap.remove(1L);
+
+        assertThat(snapshot.contains(1L)).isTrue();
+        assertThat(snapshot.contains(3L)).isFalse();
+        assertThat(snapshot.cardinality()).isEqualTo(2);
+    }
+
+    @Test
+    void add_WithNegativeId_ShouldThrow() {
+        assertThatThrownBy(() -> new ItemBitmap().add(-1L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
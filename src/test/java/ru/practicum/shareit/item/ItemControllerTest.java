@@ -7,15 +7,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.item.dto.*;
 
+import java.util.function.Consumer;
+
 // Явные импорты для избежания конфликтов
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemController.class)
@@ -46,5 +52,29 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.name", is("Drill")));
     }
 
+    @Test
+    void exportSearch_WithNdjsonAccept_ShouldStreamOneItemPerLine() throws Exception {
+        ItemDto first = new ItemDto(1L, "Drill", "Powerful drill", true, null);
+        ItemDto second = new ItemDto(2L, "Drill press", "Bench drill", true, null);
+        doAnswer(invocation -> {
+            Consumer<ItemDto> consumer = invocation.getArgument(2);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(itemService).streamSearch(eq("drill"), eq(ItemSearchFilter.AVAILABLE), any());
+
+        MvcResult result = mockMvc.perform(get("/items/search")
+                        .param("text", "drill")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(first) + "\n"
+                        + objectMapper.writeValueAsString(second) + "\n"));
+    }
+
     // остальные тесты...
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemDetailsCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<Long, ItemDetailsCache.ItemDetails> loader = itemId -> {
+        loads.incrementAndGet();
+        return new ItemDetailsCache.ItemDetails(itemId, 1L, "Drill", "Powerful drill", true, List.of(), 0);
+    };
+
+    @Test
+    void get_WhenCached_ShouldNotCallLoader() {
+        ItemDetailsCache cache = new ItemDetailsCache(10, 60_000);
+
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void onItemChanged_ShouldDropEntry() {
+        ItemDetailsCache cache = new ItemDetailsCache(10, 60_000);
+        cache.get(1L, loader);
+
+        cache.onItemChanged(new ItemChangedEvent(1L));
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_WhenMaxSizeExceeded_ShouldEvictLeastRecentlyUsed() {
+        ItemDetailsCache cache = new ItemDetailsCache(2, 60_000);
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        cache.get(1L, loader);
+        cache.get(3L, loader);
+
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void get_WhenEntryExpired_ShouldReload() {
+        ItemDetailsCache cache = new ItemDetailsCache(10, 0);
+
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_WhenInvalidatedDuringLoad_ShouldNotCacheStaleValue() {
+        ItemDetailsCache cache = new ItemDetailsCache(10, 60_000);
+
+        cache.get(1L, itemId -> {
+            cache.invalidate(itemId);
+            return loader.apply(itemId);
+        });
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void toDto_ShouldReturnIndependentCopies() {
+        ItemDetailsCache cache = new ItemDetailsCache(10, 60_000);
+        ItemDetailsCache.ItemDetails details = cache.get(1L, loader);
+
+        details.toDto().setName("Changed");
+
+        assertThat(cache.get(1L, loader).toDto().getName()).isEqualTo("Drill");
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemFacetIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemFacetIndex(itemRepository, 2);
+
+        index.put(1L, new ItemFacetIndex.Facets(10L, null, true, false));
+        index.put(2L, new ItemFacetIndex.Facets(10L, 100L, true, true));
+        index.put(3L, new ItemFacetIndex.Facets(20L, 100L, false, true));
+        index.put(4L, new ItemFacetIndex.Facets(20L, null, true, true));
+    }
+
+    @Test
+    void filter_ShouldIntersectSelectedFacets() {
+        assertThat(ids(ItemSearchFilter.AVAILABLE)).containsExactly(1L, 2L, 4L);
+        assertThat(ids(new ItemSearchFilter(10L, null, null, true))).containsExactly(1L, 2L);
+        assertThat(ids(new ItemSearchFilter(null, 100L, true, true))).containsExactly(2L);
+        assertThat(ids(new ItemSearchFilter(20L, null, true, false))).containsExactly(3L);
+        assertThat(ids(new ItemSearchFilter(null, null, false, true))).containsExactly(1L);
+    }
+
+    @Test
+    void filter_WithUnknownOwnerOrRequest_ShouldReturnEmptySet() {
+        assertThat(index.filter(new ItemSearchFilter(99L, null, null, true)).isEmpty()).isTrue();
+        assertThat(index.filter(new ItemSearchFilter(null, 999L, null, true)).isEmpty()).isTrue();
+    }
+
+    @Test
+    void filter_ShouldReturnSnapshotUnaffectedByLaterChanges() {
+        ItemBitmap available = index.filter(ItemSearchFilter.AVAILABLE);
+
+        index.put(1L, new ItemFacetIndex.Facets(10L, null, false, false));
+
+        assertThat(available.contains(1L)).isTrue();
+        assertThat(ids(ItemSearchFilter.AVAILABLE)).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void put_WhenFacetsChanged_ShouldMoveItemBetweenValues() {
+        index.put(2L, new ItemFacetIndex.Facets(20L, null, true, true));
+
+        assertThat(ids(new ItemSearchFilter(10L, null, null, true))).containsExactly(1L);
+        assertThat(ids(new ItemSearchFilter(20L, null, null, true))).containsExactly(2L, 4L);
+        assertThat(ids(new ItemSearchFilter(null, 100L, null, true))).isEmpty();
+    }
+
+    @Test
+    void onItemChanged_ShouldUpdateOrRemoveItem() {
+        ItemFacetView commented = view(1L, 10L, true, 3L);
+        when(itemRepository.findFacetsById(1L)).thenReturn(Optional.of(commented));
+        when(itemRepository.findFacetsById(4L)).thenReturn(Optional.empty());
+
+        index.onItemChanged(new ItemChangedEvent(1L));
+        index.onItemChanged(new ItemChangedEvent(4L));
+
+        assertThat(ids(new ItemSearchFilter(null, null, true, true))).containsExactly(1L, 2L);
+        assertThat(ids(new ItemSearchFilter(20L, null, null, true))).isEmpty();
+    }
+
+    @Test
+    void warmUp_ShouldLoadAllItemsInBatches() {
+        ItemFacetIndex fresh = new ItemFacetIndex(itemRepository, 2);
+        List<ItemFacetView> first = List.of(view(1L, 10L, true, 0L), view(2L, 10L, false, 0L));
+        List<ItemFacetView> second = List.of(view(5L, 10L, true, 1L));
+        when(itemRepository.findFacetsAfter(eq(0L), any(Pageable.class))).thenReturn(first);
+        when(itemRepository.findFacetsAfter(eq(2L), any(Pageable.class))).thenReturn(second);
+
+        fresh.warmUp();
+
+        assertThat(fresh.filter(new ItemSearchFilter(10L, null, null, true)).cardinality()).isEqualTo(2);
+        assertThat(fresh.filter(new ItemSearchFilter(10L, null, true, true)).contains(5L)).isTrue();
+        assertThat(fresh.filter(new ItemSearchFilter(10L, null, null, false)).contains(2L)).isTrue();
+    }
+
+    private List<Long> ids(ItemSearchFilter filter) {
+        ItemBitmap bitmap = index.filter(filter);
+        return List.of(1L, 2L, 3L, 4L).stream()
+                .filter(bitmap::contains)
+                .toList();
+    }
+
+    private ItemFacetView view(Long id, Long ownerId, boolean available, Long commentsCount) {
+        ItemFacetView item = mock(ItemFacetView.class);
+        when(item.getId()).thenReturn(id);
+        when(item.getOwnerId()).thenReturn(ownerId);
+        when(item.getAvailable()).thenReturn(available);
+        when(item.getCommentsCount()).thenReturn(commentsCount);
+        return item;
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemRelevanceTest {
+
+    @Test
+    void frequencies_ShouldCountNormalizedWords() {
+        assertThat(frequencies("Drill, DRILL and drill-bits"))
+                .isEqualTo(Map.of("drill", 3, "and", 1, "bit", 1));
+    }
+
+    @Test
+    void score_ShouldWeighNameOverDescriptionAndExactOverPartial() {
+        Set<String> query = Set.of("drill");
+
+        int inName = ItemRelevance.score(query, frequencies("Drill"), Map.of());
+        int inDescription = ItemRelevance.score(query, Map.of(), frequencies("Drill"));
+        int partialInName = ItemRelevance.score(query, frequencies("Drillmaster"), Map.of());
+
+        assertThat(inName).isGreaterThan(inDescription);
+        assertThat(inName).isGreaterThan(partialInName);
+        assertThat(ItemRelevance.score(query, Map.of(), frequencies("drill drills")))
+                .isGreaterThan(inDescription);
+    }
+
+    @Test
+    void topK_ShouldMatchFullSortOnLargeCandidateSet() {
+        Random random = new Random(42);
+        Map<Long, Integer> scores = LongStream.rangeClosed(1, 100_000).boxed()
+                .collect(Collectors.toMap(id -> id, id -> random.nextInt(1_000)));
+
+        ItemRelevance.TopK top = new ItemRelevance.TopK(30);
+        scores.forEach(top::offer);
+
+        List<Long> expected = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .skip(20)
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        assertThat(top.page(20)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void topK_WithZeroCapacity_ShouldReturnEmptyPage() {
+        ItemRelevance.TopK top = new ItemRelevance.TopK(0);
+        top.offer(1L, 10);
+
+        assertThat(top.page(0)).isEmpty();
+    }
+
+    private static Map<String, Integer> frequencies(String text) {
+        return ItemRelevance.frequencies(TextNormalizer.tokens(text));
+    }
+}
@@ -30,10 +30,10 @@ class ItemRepositoryTest {
         entityManager.persistAndFlush(item1);
         entityManager.persistAndFlush(item2);
 
-        List<Item> items = itemRepository.findByOwnerIdOrderById(savedOwner.getId(), PageRequest.of(0, 10));
+        List<ItemView> items = itemRepository.findByOwnerIdOrderById(savedOwner.getId(), PageRequest.of(0, 10));
 
         assertThat(items).hasSize(2);
-        assertThat(items).extracting(Item::getName)
+        assertThat(items).extracting(ItemView::getName)
                 .containsExactly("Item 1", "Item 2");
     }
 
@@ -49,10 +49,11 @@ class ItemRepositoryTest {
         entityManager.persistAndFlush(item2);
         entityManager.persistAndFlush(item3);
 
-        List<Item> items = itemRepository.searchAvailableItems("drill", PageRequest.of(0, 10));
+        List<ItemView> items = itemRepository.searchAvailableItems("drill", PageRequest.of(0, 10));
 
         assertThat(items).hasSize(1);
         assertThat(items.getFirst().getName()).isEqualTo("Drill");
+        assertThat(items.getFirst().getRequestId()).isNull();
     }
 
     @Test
@@ -62,7 +63,7 @@ class ItemRepositoryTest {
         Item item = new Item(null, "Drill", "Powerful drill", true, savedOwner, null);
         entityManager.persistAndFlush(item);
 
-        List<Item> items = itemRepository.searchAvailableItems("", PageRequest.of(0, 10));
+        List<ItemView> items = itemRepository.searchAvailableItems("", PageRequest.of(0, 10));
 
         assertThat(items).isEmpty();
     }
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemSearchCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Supplier<List<Long>> loader = () -> {
+        loads.incrementAndGet();
+        return List.of(1L, 2L);
+    };
+
+    @Test
+    void get_WhenCached_ShouldNotCallLoader() {
+        ItemSearchCache cache = new ItemSearchCache(10);
+
+        cache.get("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+        List<Long> ids = cache.get("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+
+        assertThat(ids).containsExactly(1L, 2L);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getStats().getHits()).isEqualTo(1L);
+        assertThat(cache.getStats().getMisses()).isEqualTo(1L);
+    }
+
+    @Test
+    void get_WithOtherSortFilterOrPage_ShouldCallLoader() {
+        ItemSearchCache cache = new ItemSearchCache(10);
+
+        cache.get("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+        cache.get("drill", ItemSearchSort.RELEVANCE, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+        cache.get("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 10, 10, loader);
+        cache.get("drill", ItemSearchSort.ID, new ItemSearchFilter(1L, null, null, true), 0, 10, loader);
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void onItemChanged_ShouldInvalidateAllEntries() {
+        ItemSearchCache cache = new ItemSearchCache(10);
+        cache.get("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+        cache.get("saw", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+
+        cache.onItemChanged(new ItemChangedEvent(1L));
+        cache.get("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+        cache.get("saw", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+
+        assertThat(loads).hasValue(4);
+        assertThat(cache.getStats().getEpoch()).isEqualTo(1L);
+    }
+
+    @Test
+    void get_WhenCatalogChangesDuringLoad_ShouldNotServeResultLater() {
+        ItemSearchCache cache = new ItemSearchCache(10);
+
+        cache.get("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, () -> {
+            cache.onItemChanged(new ItemChangedEvent(1L));
+            return List.of(1L);
+        });
+        cache.get("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_WhenMaxSizeExceeded_ShouldEvictLeastRecentlyUsed() {
+        ItemSearchCache cache = new ItemSearchCache(2);
+        cache.get("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+        cache.get("saw", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+        cache.get("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+        cache.get("ladder", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+
+        cache.get("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+        cache.get("saw", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10, loader);
+
+        assertThat(loads).hasValue(4);
+        assertThat(cache.getStats().getSize()).isEqualTo(2);
+    }
+
+    @Test
+    void normalize_ShouldLowerCaseAndCollapseSpaces() {
+        assertThat(ItemSearchCache.normalize("  Power \t DRILL ")).isEqualTo("power drill");
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item;
+
+class ItemSearchIndexContractTest extends ItemSearchStrategyTest {
+
+    @Override
+    protected ItemSearchStrategy createStrategy() {
+        ItemSearchIndex index = new ItemSearchIndex(itemRepository, 2);
+        index.warmUp();
+        return index;
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+    private static final ItemBitmap ALL = ItemBitmap.of(1L, 2L, 3L, 4L, 5L);
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSearchIndex(itemRepository, 2);
+
+        index.index(1L, "Дрель", "Мощная дрель с перфоратором");
+        index.index(2L, "Drill", "Cordless power drill");
+        index.index(3L, "Hammer", "Heavy hammer, not a drill");
+    }
+
+    @Test
+    void search_ShouldMatchTokenPrefixesInNameAndDescription() {
+        assertThat(index.search("drill", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).containsExactly(2L, 3L);
+        assertThat(index.search("ДРЕЛ", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).containsExactly(1L);
+        assertThat(index.search("перф", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void search_WithSeveralWords_ShouldRequireAll() {
+        assertThat(index.search("power drill", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).containsExactly(2L);
+        assertThat(index.search("hammer saw", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void search_WithPrefixOfSeveralWords_ShouldMergeTheirItemsInIdOrder() {
+        index.index(4L, "Drum", "Drummer drum set");
+
+        assertThat(index.search("dr", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).containsExactly(2L, 3L, 4L);
+        assertThat(index.search("dr", ItemSearchFilter.AVAILABLE, ALL, 1, 1)).containsExactly(3L);
+        assertThat(index.search("dr heavy", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void search_ShouldPageByItemId() {
+        assertThat(index.search("drill", ItemSearchFilter.AVAILABLE, ALL, 1, 10)).containsExactly(3L);
+        assertThat(index.search("drill", ItemSearchFilter.AVAILABLE, ALL, 0, 1)).containsExactly(2L);
+    }
+
+    @Test
+    void search_ShouldReturnOnlyAllowedItemsAndPageAfterFiltering() {
+        assertThat(index.search("drill", ItemSearchFilter.AVAILABLE, ItemBitmap.of(3L), 0, 1)).containsExactly(3L);
+        assertThat(index.searchRanked("drill", ItemSearchFilter.AVAILABLE, ItemBitmap.of(1L, 3L), 0, 10))
+                .containsExactly(3L);
+        assertThat(index.search("drill", ItemSearchFilter.AVAILABLE, new ItemBitmap(), 0, 10)).isEmpty();
+    }
+
+    @Test
+    void streamMatching_ShouldLoadMatchedItemsInIdOrderedChunks() {
+        index.index(5L, "Drill bit", "Spare bit");
+        ItemView drill = mock(ItemView.class);
+        when(drill.getId()).thenReturn(2L);
+        ItemView hammer = mock(ItemView.class);
+        when(hammer.getId()).thenReturn(3L);
+        ItemView bit = mock(ItemView.class);
+        when(itemRepository.findViewsByIds(List.of(2L, 3L))).thenReturn(List.of(hammer, drill));
+        when(itemRepository.findViewsByIds(List.of(5L))).thenReturn(List.of(bit));
+
+        try (Stream<ItemView> items = index.streamMatching("drill", ItemSearchFilter.AVAILABLE, ALL)) {
+            assertThat(items).containsExactly(drill, hammer, bit);
+        }
+    }
+
+    @Test
+    void streamMatching_WhenNothingMatches_ShouldNotOpenCursor() {
+        try (Stream<ItemView> items = index.streamMatching("ladder", ItemSearchFilter.AVAILABLE, ALL)) {
+            assertThat(items).isEmpty();
+        }
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void search_WithBlankText_ShouldReturnEmptyList() {
+        assertThat(index.search(" , ", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void index_WhenItemUpdated_ShouldForgetOldWords() {
+        index.index(3L, "Saw", "Hand saw");
+
+        assertThat(index.search("hammer", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).isEmpty();
+        assertThat(index.search("drill", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).containsExactly(2L);
+        assertThat(index.search("saw", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void onItemChanged_WhenItemDeleted_ShouldRemoveIt() {
+        when(itemRepository.findViewById(2L)).thenReturn(Optional.empty());
+
+        index.onItemChanged(new ItemChangedEvent(2L));
+
+        assertThat(index.search("drill", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void onItemChanged_ShouldReindexItemWhateverItsAvailability() {
+        ItemView item = view(4L, "Ladder", "Tall ladder");
+        when(itemRepository.findViewById(4L)).thenReturn(Optional.of(item));
+
+        index.onItemChanged(new ItemChangedEvent(4L));
+
+        assertThat(index.search("ladder", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).containsExactly(4L);
+    }
+
+    @Test
+    void warmUp_ShouldLoadAllItemsInBatches() {
+        ItemSearchIndex fresh = new ItemSearchIndex(itemRepository, 2);
+        List<ItemView> first = List.of(view(1L, "Drill", "Drill"), view(2L, "Saw", "Saw"));
+        List<ItemView> second = List.of(view(5L, "Drill", "Old drill"));
+        when(itemRepository.findViewsAfter(eq(0L), any(Pageable.class))).thenReturn(first);
+        when(itemRepository.findViewsAfter(eq(2L), any(Pageable.class))).thenReturn(second);
+
+        fresh.warmUp();
+
+        assertThat(fresh.search("drill", ItemSearchFilter.AVAILABLE, ALL, 0, 10)).containsExactly(1L, 5L);
+    }
+
+    private ItemView view(Long id, String name, String description) {
+        ItemView item = mock(ItemView.class);
+        when(item.getId()).thenReturn(id);
+        when(item.getName()).thenReturn(name);
+        when(item.getDescription()).thenReturn(description);
+        return item;
+    }
+}
@@ -0,0 +1,181 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Общие проверки для всех реализаций поиска: каждая реализация запускается на одних и тех же данных.
+ */
+@DataJpaTest
+abstract class ItemSearchStrategyTest {
+
+    @Autowired
+    protected TestEntityManager entityManager;
+
+    @Autowired
+    protected ItemRepository itemRepository;
+
+    private ItemSearchStrategy search;
+
+    private User owner;
+
+    private Long drillId;
+    private Long cordlessId;
+    private Long hammerId;
+    private Long brokenId;
+
+    protected abstract ItemSearchStrategy createStrategy();
+
+    private ItemBitmap allowed(ItemSearchFilter filter) {
+        ItemFacetIndex facets = new ItemFacetIndex(itemRepository, 2);
+        facets.warmUp();
+        return facets.filter(filter);
+    }
+
+    private List<Long> search(String text, ItemSearchFilter filter, int from, int size) {
+        return search.search(text, filter, allowed(filter), from, size);
+    }
+
+    private List<Long> searchRanked(String text, ItemSearchFilter filter, int from, int size) {
+        return search.searchRanked(text, filter, allowed(filter), from, size);
+    }
+
+    private Stream<ItemView> streamMatching(String text, ItemSearchFilter filter) {
+        return search.streamMatching(text, filter, allowed(filter));
+    }
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com"));
+
+        drillId = entityManager.persistAndFlush(
+                new Item(null, "Дрель", "Мощная дрель с перфоратором", true, owner, null)).getId();
+        cordlessId = entityManager.persistAndFlush(
+                new Item(null, "Drill", "Cordless power drill", true, owner, null)).getId();
+        hammerId = entityManager.persistAndFlush(
+                new Item(null, "Hammer", "Heavy hammer, not a drill", true, owner, null)).getId();
+        brokenId = entityManager.persistAndFlush(new Item(null, "Old drill", "Broken", false, owner, null)).getId();
+
+        search = createStrategy();
+    }
+
+    @Test
+    void search_ShouldMatchNameAndDescriptionIgnoringCase() {
+        assertThat(search("DRILL", ItemSearchFilter.AVAILABLE, 0, 10)).containsExactly(cordlessId, hammerId);
+        assertThat(search("дрель", ItemSearchFilter.AVAILABLE, 0, 10)).containsExactly(drillId);
+        assertThat(search("перфор", ItemSearchFilter.AVAILABLE, 0, 10)).containsExactly(drillId);
+    }
+
+    @Test
+    void search_ShouldMatchOtherWordFormsAndYo() {
+        Long treeId = entityManager.persistAndFlush(
+                new Item(null, "Ёлка", "Искусственная ёлочка", true, owner, null)).getId();
+        search = createStrategy();
+
+        assertThat(search("дрели", ItemSearchFilter.AVAILABLE, 0, 10)).containsExactly(drillId);
+        assertThat(search("дрелью", ItemSearchFilter.AVAILABLE, 0, 10)).containsExactly(drillId);
+        assertThat(search("drills", ItemSearchFilter.AVAILABLE, 0, 10)).containsExactly(cordlessId, hammerId);
+        assertThat(search("елка", ItemSearchFilter.AVAILABLE, 0, 10)).containsExactly(treeId);
+    }
+
+    @Test
+    void search_ShouldSkipUnavailableItems() {
+        assertThat(search("broken", ItemSearchFilter.AVAILABLE, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldApplyFacets() {
+        User other = entityManager.persistAndFlush(new User(null, "Other", "other@example.com"));
+        Long otherDrillId = entityManager.persistAndFlush(
+                new Item(null, "Drill", "Another drill", true, other, null)).getId();
+        entityManager.persistAndFlush(new Comment(null, "Works fine", entityManager.find(Item.class, hammerId),
+                other, LocalDateTime.now()));
+        search = createStrategy();
+
+        assertThat(search("drill", new ItemSearchFilter(other.getId(), null, null, true), 0, 10))
+                .containsExactly(otherDrillId);
+        assertThat(search("drill", new ItemSearchFilter(null, null, true, true), 0, 10))
+                .containsExactly(hammerId);
+        assertThat(searchRanked("drill", new ItemSearchFilter(owner.getId(), null, null, false), 0, 10))
+                .containsExactly(brokenId);
+    }
+
+    @Test
+    void search_WithSeveralWords_ShouldRequireAllInAnyOrder() {
+        assertThat(search("power drill", ItemSearchFilter.AVAILABLE, 0, 10)).containsExactly(cordlessId);
+        assertThat(search("drill cordl", ItemSearchFilter.AVAILABLE, 0, 10)).containsExactly(cordlessId);
+        assertThat(search("hammer power", ItemSearchFilter.AVAILABLE, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldMatchOnlyAtWordStart() {
+        assertThat(search("rill", ItemSearchFilter.AVAILABLE, 0, 10)).isEmpty();
+        assertThat(search("ратор", ItemSearchFilter.AVAILABLE, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldPageByItemId() {
+        assertThat(search("drill", ItemSearchFilter.AVAILABLE, 0, 1)).containsExactly(cordlessId);
+        assertThat(search("drill", ItemSearchFilter.AVAILABLE, 1, 10)).containsExactly(hammerId);
+    }
+
+    @Test
+    void streamMatching_ShouldReturnAllMatchesInIdOrder() {
+        try (Stream<ItemView> items = streamMatching("drill", ItemSearchFilter.AVAILABLE)) {
+            assertThat(items).extracting(ItemView::getId, ItemView::getName)
+                    .containsExactly(tuple(cordlessId, "Drill"), tuple(hammerId, "Hammer"));
+        }
+    }
+
+    @Test
+    void search_WithBlankText_ShouldReturnEmptyList() {
+        assertThat(search("  ", ItemSearchFilter.AVAILABLE, 0, 10)).isEmpty();
+        assertThat(searchRanked("  ", ItemSearchFilter.AVAILABLE, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void searchRanked_ShouldPreferNameHitsFrequentWordsAndExactMatches() {
+        Long sawId = entityManager.persistAndFlush(
+                new Item(null, "Saw", "Drillmaster saw", true, owner, null)).getId();
+        Long pressId = entityManager.persistAndFlush(
+                new Item(null, "Drill press", "Drill, drill and drill", true, owner, null)).getId();
+        search = createStrategy();
+
+        assertThat(searchRanked("drill", ItemSearchFilter.AVAILABLE, 0, 10))
+                .containsExactly(pressId, cordlessId, hammerId, sawId);
+    }
+
+    @Test
+    void searchRanked_WithRepeatedWord_ShouldCountItOnce() {
+        Long doubleId = entityManager.persistAndFlush(
+                new Item(null, "Drill drill", "Two drills in one case", true, owner, null)).getId();
+        search = createStrategy();
+
+        assertThat(searchRanked("drill drill", ItemSearchFilter.AVAILABLE, 0, 10))
+                .containsExactly(doubleId, cordlessId, hammerId);
+        assertThat(search("drill drill", ItemSearchFilter.AVAILABLE, 0, 10))
+                .containsExactly(cordlessId, hammerId, doubleId);
+    }
+
+    @Test
+    void searchRanked_ShouldPageRankedResults() {
+        Long pressId = entityManager.persistAndFlush(
+                new Item(null, "Drill press", "Drill, drill and drill", true, owner, null)).getId();
+        search = createStrategy();
+
+        assertThat(searchRanked("drill", ItemSearchFilter.AVAILABLE, 0, 1)).containsExactly(pressId);
+        assertThat(searchRanked("drill", ItemSearchFilter.AVAILABLE, 1, 2)).containsExactly(cordlessId, hammerId);
+        assertThat(searchRanked("drill", ItemSearchFilter.AVAILABLE, 3, 10)).isEmpty();
+    }
+}
@@ -5,20 +5,26 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.BookingRepository;
-import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.ItemBookingSummary;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.pagination.SeekCursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -40,6 +46,21 @@ class ItemServiceTest {
     @Mock
     private CommentRepository commentRepository;
 
+    @Mock
+    private ItemBookingSummary bookingSummary;
+
+    @Mock
+    private ItemSearchStrategy searchStrategy;
+
+    @Mock
+    private ItemFacetIndex facetIndex;
+
+    @Mock
+    private ItemSuggestIndex suggestIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private ItemService itemService;
 
     private User owner;
@@ -48,7 +69,9 @@ class ItemServiceTest {
 
     @BeforeEach
     void setUp() {
-        itemService = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository);
+        itemService = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository,
+                bookingSummary, new ItemDetailsCache(100, 60_000), searchStrategy,
+                new ItemSearchCache(100), facetIndex, suggestIndex, eventPublisher);
 
         owner = new User(1L, "Owner", "owner@example.com");
         booker = new User(2L, "Booker", "booker@example.com");
@@ -67,6 +90,7 @@ class ItemServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo("Drill");
         verify(itemRepository).save(any(Item.class));
+        verify(eventPublisher).publishEvent(new ItemChangedEvent(1L));
     }
 
     @Test
@@ -106,18 +130,96 @@ class ItemServiceTest {
     @Test
     void getItemById_WhenUserIsOwner_ShouldReturnItemWithBookings() {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(commentRepository.findByItemIdOrderByCreatedDesc(1L)).thenReturn(List.of());
+        when(commentRepository.findNewestByItemId(eq(1L), any(Pageable.class))).thenReturn(List.of());
+        when(bookingSummary.get(eq(1L), any(LocalDateTime.class))).thenReturn(new ItemBookingSummary.Summary(
+                new ItemBookingSummary.BookingRef(5L, 2L), new ItemBookingSummary.BookingRef(6L, 2L)));
 
         ItemWithBookingsDto result = itemService.getItemById(1L, 1L);
 
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo("Drill");
+        assertThat(result.getLastBooking().getId()).isEqualTo(5L);
+        assertThat(result.getNextBooking().getId()).isEqualTo(6L);
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getItemById_WhenCached_ShouldNotQueryRepositories() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(commentRepository.findNewestByItemId(eq(1L), any(Pageable.class))).thenReturn(List.of());
+
+        itemService.getItemById(1L, 3L);
+        ItemWithBookingsDto result = itemService.getItemById(1L, 3L);
+
+        assertThat(result.getName()).isEqualTo("Drill");
+        verify(itemRepository, times(1)).findById(1L);
+        verify(commentRepository, times(1)).findNewestByItemId(eq(1L), any(Pageable.class));
+    }
+
+    @Test
+    void getItemById_WhenPreviewFull_ShouldCountAllComments() {
+        List<CommentResponseDto> newest = LongStream.rangeClosed(1, 10)
+                .mapToObj(id -> new CommentResponseDto(id, "Comment", "Booker", LocalDateTime.now()))
+                .toList();
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(commentRepository.findNewestByItemId(eq(1L), any(Pageable.class))).thenReturn(newest);
+        when(commentRepository.countByItemId(1L)).thenReturn(250L);
+
+        ItemWithBookingsDto result = itemService.getItemById(1L, 3L);
+
+        assertThat(result.getComments()).hasSize(10);
+        assertThat(result.getCommentsCount()).isEqualTo(250L);
+    }
+
+    @Test
+    void getComments_ShouldReturnPageWithNextCursor() {
+        LocalDateTime created = LocalDateTime.now().withNano(0);
+        when(commentRepository.findNewestByItemId(eq(1L), any(Pageable.class))).thenReturn(List.of(
+                new CommentResponseDto(3L, "Third", "Booker", created),
+                new CommentResponseDto(2L, "Second", "Booker", created.minusHours(1)),
+                new CommentResponseDto(1L, "First", "Booker", created.minusHours(2))));
+
+        CommentPageDto page = itemService.getComments(1L, null, 2);
+
+        assertThat(page.getComments()).extracting(CommentResponseDto::getId).containsExactly(3L, 2L);
+        assertThat(page.getNextCursor()).isEqualTo(new SeekCursor(created.minusHours(1), 2L).encode());
+    }
+
+    @Test
+    void getComments_WithCursor_ShouldSeekAfterIt() {
+        LocalDateTime created = LocalDateTime.now().withNano(0);
+        String cursor = new SeekCursor(created, 2L).encode();
+        when(commentRepository.findByItemIdAfter(eq(1L), eq(created), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(new CommentResponseDto(1L, "First", "Booker", created.minusHours(1))));
+
+        CommentPageDto page = itemService.getComments(1L, cursor, 2);
+
+        assertThat(page.getComments()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getComments_WhenItemNotFound_ShouldThrowException() {
+        when(commentRepository.findNewestByItemId(eq(99L), any(Pageable.class))).thenReturn(List.of());
+        when(itemRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> itemService.getComments(99L, null, 10))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void getComments_WithNonPositiveSize_ShouldThrowValidationException() {
+        assertThatThrownBy(() -> itemService.getComments(1L, null, 0))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> itemService.getComments(1L, null, -1))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(commentRepository);
     }
 
     @Test
     void getItemById_WhenUserNotOwner_ShouldReturnItemWithoutBookings() {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(commentRepository.findByItemIdOrderByCreatedDesc(1L)).thenReturn(List.of());
+        when(commentRepository.findNewestByItemId(eq(1L), any(Pageable.class))).thenReturn(List.of());
 
         ItemWithBookingsDto result = itemService.getItemById(1L, 3L);
 
@@ -125,29 +227,97 @@ class ItemServiceTest {
         assertThat(result.getName()).isEqualTo("Drill");
         assertThat(result.getLastBooking()).isNull();
         assertThat(result.getNextBooking()).isNull();
+        verifyNoInteractions(bookingSummary);
     }
 
     @Test
     void searchItems_ShouldReturnAvailableItems() {
-        when(itemRepository.searchAvailableItems(eq("drill"), any(PageRequest.class)))
-                .thenReturn(List.of(item));
+        ItemView view = itemView();
+        ItemBitmap allowed = ItemBitmap.of(1L, 2L);
+        when(facetIndex.filter(ItemSearchFilter.AVAILABLE)).thenReturn(allowed);
+        when(searchStrategy.search("drill", ItemSearchFilter.AVAILABLE, allowed, 0, 10)).thenReturn(List.of(1L));
+        when(itemRepository.findViewsByIds(List.of(1L))).thenReturn(List.of(view));
 
-        List<ItemDto> result = itemService.searchItems("drill", 0, 10);
+        List<ItemDto> result = itemService.searchItems("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10);
 
         assertThat(result).hasSize(1);
         assertThat(result.getFirst().getName()).isEqualTo("Drill");
     }
 
+    @Test
+    void searchItems_ByRelevance_ShouldKeepRankedOrder() {
+        ItemView first = itemView();
+        ItemView second = mock(ItemView.class);
+        when(second.getId()).thenReturn(2L);
+        ItemBitmap allowed = ItemBitmap.of(1L, 2L);
+        when(facetIndex.filter(ItemSearchFilter.AVAILABLE)).thenReturn(allowed);
+        when(searchStrategy.searchRanked("drill", ItemSearchFilter.AVAILABLE, allowed, 0, 10))
+                .thenReturn(List.of(2L, 1L));
+        when(itemRepository.findViewsByIds(List.of(2L, 1L))).thenReturn(List.of(first, second));
+
+        List<ItemDto> result = itemService.searchItems("drill", ItemSearchSort.RELEVANCE,
+                ItemSearchFilter.AVAILABLE, 0, 10);
+
+        assertThat(result).extracting(ItemDto::getId).containsExactly(2L, 1L);
+        verify(searchStrategy, never()).search(anyString(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void searchItems_WhenRepeatedWithDifferentCase_ShouldUseCachedIds() {
+        ItemBitmap allowed = ItemBitmap.of(1L);
+        when(facetIndex.filter(ItemSearchFilter.AVAILABLE)).thenReturn(allowed);
+        when(searchStrategy.search("power drill", ItemSearchFilter.AVAILABLE, allowed, 0, 10)).thenReturn(List.of());
+
+        itemService.searchItems("Power  Drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10);
+        itemService.searchItems(" power drill ", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10);
+
+        verify(searchStrategy, times(1)).search("power drill", ItemSearchFilter.AVAILABLE, allowed, 0, 10);
+        assertThat(itemService.getSearchCacheStats().getHits()).isEqualTo(1L);
+    }
+
+    @Test
+    void searchItems_WhenNoItemMatchesFacets_ShouldSkipTextSearch() {
+        ItemSearchFilter filter = new ItemSearchFilter(3L, null, true, true);
+        when(facetIndex.filter(filter)).thenReturn(new ItemBitmap());
+
+        List<ItemDto> result = itemService.searchItems("drill", ItemSearchSort.ID, filter, 0, 10);
+
+        assertThat(result).isEmpty();
+        verifyNoInteractions(searchStrategy, itemRepository);
+    }
+
+    @Test
+    void suggestNames_ShouldUseSuggestIndexWithoutRepository() {
+        when(suggestIndex.suggest("dr", 5)).thenReturn(List.of("Drill", "Drill press"));
+
+        List<String> result = itemService.suggestNames("dr", 5);
+
+        assertThat(result).containsExactly("Drill", "Drill press");
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void searchItems_WhenNothingFound_ShouldNotQueryRepository() {
+        ItemBitmap allowed = ItemBitmap.of(1L);
+        when(facetIndex.filter(ItemSearchFilter.AVAILABLE)).thenReturn(allowed);
+        when(searchStrategy.search("drill", ItemSearchFilter.AVAILABLE, allowed, 0, 10)).thenReturn(List.of());
+
+        List<ItemDto> result = itemService.searchItems("drill", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10);
+
+        assertThat(result).isEmpty();
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     void searchItems_WithBlankText_ShouldReturnEmptyList() {
-        List<ItemDto> result = itemService.searchItems("", 0, 10);
+        List<ItemDto> result = itemService.searchItems("", ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10);
 
         assertThat(result).isEmpty();
     }
 
     @Test
     void searchItems_WithNullText_ShouldReturnEmptyList() {
-        List<ItemDto> result = itemService.searchItems(null, 0, 10);
+        List<ItemDto> result = itemService.searchItems(null, ItemSearchSort.ID, ItemSearchFilter.AVAILABLE, 0, 10);
 
         assertThat(result).isEmpty();
     }
@@ -155,14 +325,10 @@ class ItemServiceTest {
     @Test
     void addComment_WhenUserHasBookings_ShouldAddComment() {
         CommentRequestDto commentDto = new CommentRequestDto("Great item!");
-        Booking booking = new Booking(1L, LocalDateTime.now().minusDays(2),
-                LocalDateTime.now().minusDays(1), item, booker, BookingStatus.APPROVED);
 
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findCompletedBookingsByUserAndItem(eq(2L), eq(1L),
-                eq(BookingStatus.APPROVED), any(LocalDateTime.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.hasCompletedBooking(eq(2L), eq(1L), any(LocalDateTime.class))).thenReturn(true);
         when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> {
             Comment comment = invocation.getArgument(0);
             comment.setId(1L);
@@ -186,9 +352,7 @@ class ItemServiceTest {
 
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findCompletedBookingsByUserAndItem(eq(2L), eq(1L),
-                eq(BookingStatus.APPROVED), any(LocalDateTime.class)))
-                .thenReturn(List.of());
+        when(bookingRepository.hasCompletedBooking(eq(2L), eq(1L), any(LocalDateTime.class))).thenReturn(false);
 
         assertThatThrownBy(() -> itemService.addComment(1L, commentDto, 2L))
                 .isInstanceOf(ValidationException.class)
@@ -220,14 +384,65 @@ class ItemServiceTest {
 
     @Test
     void getUserItems_ShouldReturnUserItems() {
+        ItemView view = itemView();
         when(itemRepository.findByOwnerIdOrderById(eq(1L), any(PageRequest.class)))
-                .thenReturn(List.of(item));
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(commentRepository.findByItemIdOrderByCreatedDesc(1L)).thenReturn(List.of());
+                .thenReturn(List.of(view));
+        CommentView comment = mock(CommentView.class);
+        when(comment.getItemId()).thenReturn(1L);
+        when(comment.getAuthorName()).thenReturn("Booker");
+        when(commentRepository.findNewestByItemIds(List.of(1L), 10)).thenReturn(List.of(comment));
+        when(bookingSummary.get(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(new ItemBookingSummary.Summary(new ItemBookingSummary.BookingRef(5L, 2L), null));
 
         List<ItemWithBookingsDto> result = itemService.getUserItems(1L, 0, 10);
 
         assertThat(result).hasSize(1);
         assertThat(result.getFirst().getName()).isEqualTo("Drill");
+        assertThat(result.getFirst().getComments()).extracting(CommentResponseDto::getAuthorName)
+                .containsExactly("Booker");
+        assertThat(result.getFirst().getCommentsCount()).isEqualTo(1L);
+        assertThat(result.getFirst().getLastBooking().getId()).isEqualTo(5L);
+        verify(itemRepository, never()).findById(anyLong());
+        verify(commentRepository, never()).countByItemIds(anyCollection());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void streamUserItems_ShouldPassItemsWithBookingsOneByOne() {
+        ItemView view = itemView();
+        when(itemRepository.streamByOwnerId(1L)).thenReturn(Stream.of(view));
+        when(bookingSummary.get(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(new ItemBookingSummary.Summary(new ItemBookingSummary.BookingRef(5L, 2L), null));
+        List<ItemWithBookingsDto> received = new ArrayList<>();
+
+        itemService.streamUserItems(1L, received::add);
+
+        assertThat(received).extracting(ItemWithBookingsDto::getName).containsExactly("Drill");
+        assertThat(received.getFirst().getLastBooking().getId()).isEqualTo(5L);
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void streamSearch_ShouldPassMatchesAndCloseCursor() {
+        ItemView view = itemView();
+        ItemBitmap allowed = ItemBitmap.of(1L);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(facetIndex.filter(ItemSearchFilter.AVAILABLE)).thenReturn(allowed);
+        when(searchStrategy.streamMatching("power drill", ItemSearchFilter.AVAILABLE, allowed))
+                .thenReturn(Stream.of(view).onClose(() -> closed.set(true)));
+        List<String> names = new ArrayList<>();
+
+        itemService.streamSearch(" Power  Drill", ItemSearchFilter.AVAILABLE, item -> names.add(item.getName()));
+
+        assertThat(names).containsExactly("Drill");
+        assertThat(closed).isTrue();
+        verifyNoInteractions(itemRepository);
+    }
+
+    private ItemView itemView() {
+        ItemView view = mock(ItemView.class);
+        when(view.getId()).thenReturn(1L);
+        when(view.getName()).thenReturn("Drill");
+        return view;
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSuggestIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSuggestIndex(itemRepository, 2);
+
+        index.put(1L, "Drill");
+        index.put(2L, "Drill press");
+        index.put(3L, "Дрель");
+        index.put(4L, "Hammer");
+    }
+
+    @Test
+    void suggest_ShouldReturnNamesWithPrefixInAlphabeticalOrder() {
+        assertThat(index.suggest("DR", 10)).containsExactly("Drill", "Drill press");
+        assertThat(index.suggest("дре", 10)).containsExactly("Дрель");
+        assertThat(index.suggest("saw", 10)).isEmpty();
+    }
+
+    @Test
+    void suggest_ShouldRespectLimit() {
+        assertThat(index.suggest("dr", 1)).containsExactly("Drill");
+        assertThat(index.suggest("dr", 0)).isEmpty();
+    }
+
+    @Test
+    void suggest_WithBlankPrefix_ShouldReturnEmptyList() {
+        assertThat(index.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void put_WhenSameNameUsedTwice_ShouldKeepItUntilLastItemRemoved() {
+        index.put(5L, "drill");
+
+        index.remove(1L);
+        assertThat(index.suggest("drill", 10)).containsExactly("Drill", "Drill press");
+
+        index.remove(5L);
+        assertThat(index.suggest("drill", 10)).containsExactly("Drill press");
+    }
+
+    @Test
+    void put_WhenItemRenamed_ShouldReplaceOldName() {
+        index.put(4L, "Sledgehammer");
+
+        assertThat(index.suggest("ham", 10)).isEmpty();
+        assertThat(index.suggest("sledge", 10)).containsExactly("Sledgehammer");
+    }
+
+    @Test
+    void onItemChanged_WhenItemBecameUnavailable_ShouldRemoveName() {
+        ItemView item = mock(ItemView.class);
+        when(item.getAvailable()).thenReturn(false);
+        when(itemRepository.findViewById(4L)).thenReturn(Optional.of(item));
+
+        index.onItemChanged(new ItemChangedEvent(4L));
+
+        assertThat(index.suggest("h", 10)).isEmpty();
+    }
+
+    @Test
+    void warmUp_ShouldLoadAvailableNamesInBatches() {
+        ItemSuggestIndex fresh = new ItemSuggestIndex(itemRepository, 2);
+        List<ItemView> first = List.of(view(1L, "Saw"), view(2L, "Drill"));
+        List<ItemView> second = List.of(view(7L, "Screwdriver"));
+        when(itemRepository.findAvailableAfter(eq(0L), any(Pageable.class))).thenReturn(first);
+        when(itemRepository.findAvailableAfter(eq(2L), any(Pageable.class))).thenReturn(second);
+
+        fresh.warmUp();
+
+        assertThat(fresh.suggest("s", 10)).containsExactly("Saw", "Screwdriver");
+    }
+
+    private ItemView view(Long id, String name) {
+        ItemView item = mock(ItemView.class);
+        when(item.getId()).thenReturn(id);
+        when(item.getName()).thenReturn(name);
+        return item;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.user.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Запросы поиска выполняются на H2: условия на LIKE и REPLACE там работают так же, а триграммные индексы
+ * ({@link PostgresItemSearch#createTrigramIndexes()}) на результат не влияют и здесь не создаются.
+ */
+class PostgresItemSearchTest extends ItemSearchStrategyTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    protected ItemSearchStrategy createStrategy() {
+        return new PostgresItemSearch(jdbcTemplate);
+    }
+
+    @Test
+    void search_WithLargeFacetIntersection_ShouldPageInSql() {
+        User owner = entityManager.persistAndFlush(new User(null, "Lender", "lender@example.com"));
+        User other = entityManager.persistAndFlush(new User(null, "Neighbour", "neighbour@example.com"));
+        Long firstId = entityManager.persistAndFlush(new Item(null, "Ladder", "First", true, owner, null)).getId();
+        entityManager.persistAndFlush(new Item(null, "Old ladder", "Broken", false, owner, null));
+        Long otherId = entityManager.persistAndFlush(new Item(null, "Ladder", "Second", true, other, null)).getId();
+        Long lastId = entityManager.persistAndFlush(new Item(null, "Ladder", "Third", true, owner, null)).getId();
+        ItemFacetIndex facets = new ItemFacetIndex(itemRepository, 10);
+        facets.warmUp();
+        ItemSearchFilter byOwner = new ItemSearchFilter(owner.getId(), null, null, true);
+        // Нулевой порог отключает поиск по id пересечения, и запрос идёт по SQL-страницам
+        PostgresItemSearch search = new PostgresItemSearch(jdbcTemplate, 0);
+
+        assertThat(search.search("ladder", ItemSearchFilter.AVAILABLE, facets.filter(ItemSearchFilter.AVAILABLE), 1, 1))
+                .containsExactly(otherId);
+        assertThat(search.search("ladder", byOwner, facets.filter(byOwner), 0, 10))
+                .containsExactly(firstId, lastId);
+        assertThat(search.search("ladder", byOwner, facets.filter(byOwner), 1, 10))
+                .containsExactly(lastId);
+    }
+}
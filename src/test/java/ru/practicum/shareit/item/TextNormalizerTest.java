@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextNormalizerTest {
+
+    @Test
+    void tokens_ShouldLowerCaseFoldYoAndSplitOnPunctuation() {
+        assertThat(TextNormalizer.tokens("Ёлка, ЁЖ-2000!")).containsExactly("елк", "еж", "2000");
+    }
+
+    @Test
+    void tokens_ShouldReduceRussianWordFormsToOneStem() {
+        assertThat(TextNormalizer.tokens("дрель дрели дрелью дрелями"))
+                .containsExactly("дрел", "дрел", "дрел", "дрел");
+        assertThat(TextNormalizer.tokens("лестница лестницы лестнице"))
+                .containsExactly("лестниц", "лестниц", "лестниц");
+    }
+
+    @Test
+    void tokens_ShouldReduceEnglishWordFormsToOneStem() {
+        assertThat(TextNormalizer.tokens("drill drills drilling drilled"))
+                .containsExactly("drill", "drill", "drill", "drill");
+    }
+
+    @Test
+    void tokens_ShouldKeepShortWordsWhole() {
+        assertThat(TextNormalizer.tokens("с и as")).containsExactly("с", "и", "as");
+    }
+
+    @Test
+    void searchTokens_ShouldSurviveEncoding() {
+        ItemSearchTokens tokens = ItemSearchTokens.of("Дрель", "Мощная дрель");
+
+        assertThat(tokens.encode()).isEqualTo("дрел|мощн дрел");
+        assertThat(ItemSearchTokens.decode(tokens.encode())).isEqualTo(tokens);
+        assertThat(ItemSearchTokens.decode(ItemSearchTokens.of("Дрель", null).encode()).description()).isEmpty();
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeekCursorTest {
+
+    @Test
+    void decode_ShouldRestoreEncodedCursor() {
+        SeekCursor cursor = new SeekCursor(LocalDateTime.of(2025, 3, 1, 12, 30, 15), 42L);
+
+        assertThat(SeekCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void decode_WhenBlank_ShouldReturnNull() {
+        assertThat(SeekCursor.decode("")).isNull();
+        assertThat(SeekCursor.decode(null)).isNull();
+    }
+
+    @Test
+    void decode_WhenMalformed_ShouldThrowException() {
+        assertThatThrownBy(() -> SeekCursor.decode("not-a-cursor"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Некорректный курсор пагинации");
+    }
+}